@@ -0,0 +1,22 @@
+package life.savag3.lazy.benchmark;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Entry point for the benchmark jar. Runs JMH with the GC profiler always enabled,
+ * so every result reports allocation rates alongside throughput.
+ *
+ * @author Jacob C (Savag3life)
+ * @since 2026-10-18
+ */
+public class LazyBenchmarks {
+
+    // java -jar benchmarks.jar [JMH options] [Benchmark regex]
+    public static void main(String[] args) throws Exception {
+        CommandLineOptions options = new CommandLineOptions(args);
+        new Runner(new OptionsBuilder().parent(options).addProfiler(GCProfiler.class).build()).run();
+    }
+}
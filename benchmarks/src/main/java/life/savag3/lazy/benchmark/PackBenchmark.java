@@ -0,0 +1,125 @@
+package life.savag3.lazy.benchmark;
+
+import life.savag3.lazy.JarWriter;
+import life.savag3.lazy.LazyClassTransformer;
+import life.savag3.lazy.LazyConfig;
+import life.savag3.lazy.LazyException;
+import life.savag3.lazy.LazyStripper;
+import life.savag3.lazy.StripResult;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Measures packing synthetic jars, both as a full strip (read, strip & write the output jar with {@link LazyStripper})
+ * and as the output jar writer on its own.
+ *
+ * @author Jacob C (Savag3life)
+ * @since 2026-10-18
+ */
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class PackBenchmark {
+
+    @Param({"1000", "10000"})
+    public int classes;
+
+    private Path directory;
+    private Path input;
+    private Path config;
+    private LazyStripper stripper;
+    private byte[][] entries;
+    private LazyConfig writerConfig;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException, LazyException {
+        this.directory = Files.createTempDirectory("lazy-bench");
+        this.input = this.directory.resolve("input.jar");
+        this.config = this.directory.resolve("config.json");
+        SyntheticClasses.writeJar(this.input, this.classes, this.classes / 10, 16 * 1024, 42L);
+        // Lazy reports progress on the console, which would dominate the measurement
+        Files.writeString(this.config, "{\"VERBOSE\": false, \"LOG_LEVEL\": \"WARN\"}");
+
+        SyntheticClasses.Shape[] shapes = SyntheticClasses.Shape.values();
+        this.entries = new byte[this.classes][];
+        this.writerConfig = LazyConfig.current();
+        for (int x = 0; x < this.classes; x++) {
+            // The writer packs stripped classes, so measure it with them
+            byte[] original = SyntheticClasses.generate("life/savag3/synthetic/Generated" + x, shapes[x % shapes.length], x);
+            this.entries[x] = new LazyClassTransformer(original, this.writerConfig).transform();
+        }
+
+        this.stripper = LazyStripper.open(this.config);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        this.stripper.close();
+        try (Stream<Path> files = Files.walk(this.directory)) {
+            files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+
+    @Benchmark
+    public StripResult strip() throws LazyException {
+        return this.stripper.strip(this.input, this.directory.resolve("output.jar"));
+    }
+
+    @Benchmark
+    public long write() throws IOException {
+        NullChannel channel = new NullChannel();
+        try (JarWriter writer = new JarWriter(channel, this.writerConfig.isReproducibleOutput())) {
+            for (int x = 0; x < this.entries.length; x++) {
+                String name = "life/savag3/synthetic/Generated" + x + ".class";
+                writer.write(JarWriter.compress(name, this.entries[x], this.writerConfig.getOutputCompression(), this.writerConfig.getCompressionLevel()));
+            }
+        }
+        return channel.written;
+    }
+
+    /**
+     * Channel discarding everything written to it, so only the writer itself is measured.
+     */
+    private static final class NullChannel implements WritableByteChannel {
+        private long written;
+
+        @Override
+        public int write(ByteBuffer src) {
+            int remaining = src.remaining();
+            src.position(src.limit());
+            this.written += remaining;
+            return remaining;
+        }
+
+        @Override
+        public boolean isOpen() {
+            return true;
+        }
+
+        @Override
+        public void close() {}
+    }
+}
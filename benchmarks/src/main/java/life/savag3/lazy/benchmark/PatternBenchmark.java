@@ -0,0 +1,73 @@
+package life.savag3.lazy.benchmark;
+
+import life.savag3.lazy.Config;
+import life.savag3.lazy.LazyConfig;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Measures {@link LazyConfig} EXEMPT / EXCLUDE matching against large pattern lists.
+ *
+ * @author Jacob C (Savag3life)
+ * @since 2026-10-18
+ */
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class PatternBenchmark {
+
+    private static final int PATHS = 1024;
+
+    @Param({"10", "100", "500"})
+    public int patterns;
+
+    private LazyConfig config;
+    private String[] paths;
+
+    @Setup
+    public void setup() {
+        Random random = new Random(42L);
+        List<String> exempt = new ArrayList<>();
+        List<String> exclude = new ArrayList<>();
+        for (int x = 0; x < this.patterns; x++) {
+            List<String> target = x % 2 == 0 ? exempt : exclude;
+            switch (x % 3) {
+                case 0 -> target.add("com/example" + x + "/module" + random.nextInt(50) + "/*");
+                case 1 -> target.add("com/example" + x + "/*/internal/*");
+                default -> target.add("com/example" + x + "/api/Type" + x + ".class");
+            }
+        }
+        Config.EXEMPT = exempt;
+        Config.EXCLUDE = exclude;
+        this.config = LazyConfig.current();
+
+        this.paths = new String[PATHS];
+        for (int x = 0; x < PATHS; x++) {
+            int pkg = random.nextInt(this.patterns * 2);
+            this.paths[x] = "com/example" + pkg + "/" + (random.nextBoolean() ? "internal" : "module" + random.nextInt(50)) + "/sub/Type" + x + ".class";
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(PATHS)
+    public int match() {
+        int matches = 0;
+        for (String path : this.paths) {
+            if (this.config.isExcluded(path)) matches++;
+            else if (this.config.isExempt(path)) matches += 2;
+        }
+        return matches;
+    }
+}
@@ -0,0 +1,77 @@
+package life.savag3.lazy.benchmark;
+
+import life.savag3.lazy.JarIndex;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+
+/**
+ * Compares reading every class of a synthetic jar through {@link JarFile} against the memory-mapped {@link JarIndex}.
+ * Run with `-t N` to measure contention between reader threads.
+ *
+ * @author Jacob C (Savag3life)
+ * @since 2026-10-18
+ */
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class ReaderBenchmark {
+
+    @Param({"2000"})
+    public int classes;
+
+    private Path input;
+    private JarFile jarFile;
+    private JarIndex index;
+    private List<JarIndex.Entry> entries;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        this.input = Files.createTempFile("lazy-reader", ".jar");
+        SyntheticClasses.writeJar(this.input, this.classes, 0, 0, 42L);
+        this.jarFile = new JarFile(this.input.toFile());
+        this.index = JarIndex.open(this.input.toFile());
+        this.entries = this.index.getEntries().stream().filter(entry -> entry.name().endsWith(".class")).toList();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        this.jarFile.close();
+        this.index.close();
+        Files.deleteIfExists(this.input);
+    }
+
+    @Benchmark
+    public long jarFile() throws IOException {
+        long total = 0;
+        for (JarIndex.Entry entry : this.entries) {
+            JarEntry jarEntry = this.jarFile.getJarEntry(entry.name());
+            total += this.jarFile.getInputStream(jarEntry).readAllBytes().length;
+        }
+        return total;
+    }
+
+    @Benchmark
+    public long mapped() throws IOException {
+        long total = 0;
+        for (JarIndex.Entry entry : this.entries) {
+            total += this.index.read(entry).length;
+        }
+        return total;
+    }
+}
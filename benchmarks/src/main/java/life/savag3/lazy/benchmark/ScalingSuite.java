@@ -0,0 +1,442 @@
+package life.savag3.lazy.benchmark;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+import com.google.gson.reflect.TypeToken;
+import life.savag3.lazy.Lazy;
+import life.savag3.lazy.LazyException;
+import life.savag3.lazy.StripResult;
+import org.objectweb.asm.ClassReader;
+import org.objectweb.asm.util.CheckClassAdapter;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+import java.util.stream.Stream;
+
+/**
+ * Scaling suite for large jars. Each scenario generates a synthetic jar, strips it with the full Lazy pipeline in a
+ * forked JVM under a fixed heap limit, and records throughput, peak RSS & GC time. Every output is checked against
+ * the input (EXCLUDE'd classes are gone, EXEMPT classes are untouched) and every class is loaded by the JVM.
+ * <p>
+ * Stripped constructors no longer call `super()`, so stripped classes are compile-time API only & would never pass
+ * the JVM's bytecode verifier. Their method bodies are checked with ASM's data-flow verifier instead, while EXEMPT
+ * classes are initialized, so the JVM links & verifies them in full.
+ * <p>
+ * The suite exits with status 1 if any scenario fails, runs out of memory, fails verification, or regresses:
+ * throughput below `--min-throughput`, throughput per class falling off as the jar grows (`--max-scaling-loss`),
+ * or throughput & peak RSS worse than a recorded baseline by more than `--tolerance`.
+ *
+ * @author Jacob C (Savag3life)
+ * @since 2026-10-18
+ */
+public class ScalingSuite {
+
+    private static final Gson GSON = new GsonBuilder().setPrettyPrinting().create();
+    private static final long SEED = 42L;
+
+    // java -cp benchmarks.jar life.savag3.lazy.benchmark.ScalingSuite [--scenario <classes:heap>]... [options]
+    public static void main(String[] args) throws Exception {
+        if (args.length > 0 && args[0].equals("--child")) {
+            child(args);
+            return;
+        }
+
+        Options options;
+        try {
+            options = Options.parse(args);
+        } catch (IllegalArgumentException e) {
+            System.out.println(e.getMessage());
+            Options.usage();
+            System.exit(1);
+            return;
+        }
+
+        Files.createDirectories(options.work);
+        List<String> failures = new ArrayList<>();
+        List<Result> results = new ArrayList<>();
+        for (Scenario scenario : options.scenarios) {
+            Result result = run(scenario, options, failures);
+            if (result != null) results.add(result);
+        }
+
+        checkScaling(results, options, failures);
+        if (options.baseline != null) checkBaseline(results, options, failures);
+        if (options.record != null) {
+            Files.writeString(options.record, GSON.toJson(results));
+            System.out.println("Recorded results to " + options.record.toAbsolutePath());
+        }
+        if (!options.keep) delete(options.work);
+
+        System.out.println();
+        System.out.printf(Locale.ROOT, "%-18s %8s %12s %10s %10s %10s%n", "Scenario", "Classes", "Classes/s", "Millis", "Peak RSS", "GC ms");
+        for (Result result : results) {
+            System.out.printf(Locale.ROOT, "%-18s %8d %12.0f %10d %8d MB %10d%n",
+                    result.name, result.classes, result.throughput, result.millis, result.peakRssMb, result.gcMillis);
+        }
+
+        if (!failures.isEmpty()) {
+            System.out.println();
+            failures.forEach(failure -> System.out.println("FAILED: " + failure));
+            System.exit(1);
+        }
+        System.out.println("All " + results.size() + " scenario(s) passed");
+    }
+
+    /**
+     * Generate, strip & verify a single scenario.
+     *
+     * @return The result of the scenario, or null if it failed to strip
+     */
+    private static Result run(Scenario scenario, Options options, List<String> failures) throws IOException, InterruptedException {
+        String name = scenario.classes + "@" + scenario.heap;
+        Path directory = Files.createDirectories(options.work.resolve(name.replace('@', '-')));
+        Path input = directory.resolve("input.jar");
+        Path output = directory.resolve("output.jar");
+        Path config = directory.resolve("config.json");
+        Path stats = directory.resolve("stats.json");
+
+        SyntheticClasses.Profile profile = new SyntheticClasses.Profile(scenario.classes, options.methodScale, options.annotateEvery,
+                options.retainEvery, (int) (scenario.classes * options.resourcesPerClass), options.resourceKb * 1024);
+        System.out.println("Generating " + name + " (" + profile + ")");
+        SyntheticClasses.writeJar(input, profile, SEED);
+        Files.writeString(config, GSON.toJson(config(options)));
+
+        // Strip in a fresh JVM, so the heap limit & peak RSS only cover this scenario
+        List<String> command = new ArrayList<>(List.of(
+                Path.of(System.getProperty("java.home"), "bin", "java").toString(),
+                "-Xmx" + scenario.heap,
+                "-cp", System.getProperty("java.class.path"),
+                ScalingSuite.class.getName(), "--child", input.toString(), output.toString(), config.toString(), stats.toString()));
+        System.out.println("Stripping " + name + " (" + Files.size(input) / 1024 / 1024 + " MB)");
+        Process process = new ProcessBuilder(command)
+                .redirectErrorStream(true)
+                .redirectOutput(directory.resolve("lazy.log").toFile())
+                .start();
+        int status = process.waitFor();
+        if (status != 0 || !Files.exists(stats)) {
+            failures.add(name + " exited with status " + status + ", see " + directory.resolve("lazy.log")
+                    + (Files.readString(directory.resolve("lazy.log")).contains("OutOfMemoryError") ? " (out of memory)" : ""));
+            return null;
+        }
+
+        Result result = GSON.fromJson(Files.readString(stats), Result.class);
+        result.name = name;
+        result.classes = scenario.classes;
+        result.throughput = scenario.classes * 1000.0D / Math.max(1, result.millis);
+        verify(name, input, output, options, failures);
+
+        if (options.minThroughput > 0 && result.throughput < options.minThroughput) {
+            failures.add(String.format(Locale.ROOT, "%s stripped %.0f classes/s, below the minimum of %d", name, result.throughput, options.minThroughput));
+        }
+        if (options.maxRssMb > 0 && result.peakRssMb > options.maxRssMb) {
+            failures.add(name + " peaked at " + result.peakRssMb + " MB RSS, above the maximum of " + options.maxRssMb + " MB");
+        }
+        return result;
+    }
+
+    /**
+     * Build the config of a run, exempting & excluding whole generated packages.
+     */
+    private static JsonObject config(Options options) {
+        JsonArray exempt = new JsonArray();
+        JsonArray exclude = new JsonArray();
+        for (int x = 0; x < options.exempt; x++) exempt.add(SyntheticClasses.packageName(x) + "/*");
+        for (int x = options.exempt; x < options.exempt + options.exclude; x++) exclude.add(SyntheticClasses.packageName(x) + "/*");
+
+        JsonArray retention = new JsonArray();
+        retention.add(SyntheticClasses.RETAIN_ANNOTATION);
+
+        JsonObject config = new JsonObject();
+        config.add("EXEMPT", exempt);
+        config.add("EXCLUDE", exclude);
+        config.add("RETENTION_ANNOTATIONS", retention);
+        config.addProperty("INCLUDE_RESOURCES", true);
+        return config;
+    }
+
+    /**
+     * Check the output of a scenario against its input, then load & initialize every class so the JVM links & verifies it.
+     */
+    private static void verify(String name, Path input, Path output, Options options, List<String> failures) throws IOException {
+        Map<String, byte[]> exempt = new HashMap<>();
+        int expected = 0;
+        try (JarFile jar = new JarFile(input.toFile())) {
+            for (Enumeration<JarEntry> entries = jar.entries(); entries.hasMoreElements(); ) {
+                JarEntry entry = entries.nextElement();
+                int index = packageIndex(entry.getName());
+                if (entry.getName().endsWith(".class") && index >= 0 && index < options.exempt) {
+                    try (InputStream in = jar.getInputStream(entry)) {
+                        exempt.put(entry.getName(), in.readAllBytes());
+                    }
+                }
+                if (!entry.isDirectory() && !entry.getName().equals(JarFile.MANIFEST_NAME) && (index < options.exempt || index >= options.exempt + options.exclude)) expected++;
+            }
+        }
+
+        List<String> classes = new ArrayList<>();
+        int found = 0;
+        StringWriter errors = new StringWriter();
+        try (JarFile jar = new JarFile(output.toFile())) {
+            for (Enumeration<JarEntry> entries = jar.entries(); entries.hasMoreElements(); ) {
+                JarEntry entry = entries.nextElement();
+                if (entry.isDirectory() || entry.getName().equals(JarFile.MANIFEST_NAME)) continue;
+                found++;
+
+                int index = packageIndex(entry.getName());
+                if (index >= options.exempt && index < options.exempt + options.exclude) {
+                    failures.add(name + " wrote excluded entry " + entry.getName());
+                    return;
+                }
+                if (exempt.containsKey(entry.getName())) {
+                    try (InputStream in = jar.getInputStream(entry)) {
+                        if (!Arrays.equals(exempt.get(entry.getName()), in.readAllBytes())) {
+                            failures.add(name + " changed exempt class " + entry.getName());
+                            return;
+                        }
+                    }
+                } else if (entry.getName().endsWith(".class")) {
+                    try (InputStream in = jar.getInputStream(entry)) {
+                        CheckClassAdapter.verify(new ClassReader(in), ScalingSuite.class.getClassLoader(), false, new PrintWriter(errors));
+                    }
+                    if (errors.getBuffer().length() > 0) {
+                        failures.add(name + " wrote a class which fails verification " + entry.getName() + ": " + errors);
+                        return;
+                    }
+                }
+                if (entry.getName().endsWith(".class")) classes.add(entry.getName().substring(0, entry.getName().length() - 6).replace('/', '.'));
+            }
+        }
+        if (found != expected) {
+            failures.add(name + " wrote " + found + " entries, expected " + expected);
+            return;
+        }
+
+        try (URLClassLoader loader = new URLClassLoader(new URL[]{output.toUri().toURL()}, ClassLoader.getPlatformClassLoader())) {
+            for (String className : classes) {
+                try {
+                    // Only untouched classes are initialized, which links & verifies them
+                    Class.forName(className, exempt.containsKey(className.replace('.', '/') + ".class"), loader);
+                } catch (ClassNotFoundException | LinkageError e) {
+                    failures.add(name + " output failed to load " + className + ": " + e);
+                    return;
+                }
+            }
+        }
+        System.out.println("Verified " + classes.size() + " classes of " + name);
+    }
+
+    /**
+     * @return The index of the generated package holding an entry, or -1 if the entry isn't in one
+     */
+    private static int packageIndex(String entry) {
+        String prefix = SyntheticClasses.packageName(0);
+        prefix = prefix.substring(0, prefix.length() - 1);
+        if (!entry.startsWith(prefix)) return -1;
+        int end = entry.indexOf('/', prefix.length());
+        return end < 0 ? -1 : Integer.parseInt(entry.substring(prefix.length(), end));
+    }
+
+    /**
+     * Fail the suite if throughput per class falls off as jars grow, beyond what a warmer JIT makes up for.
+     */
+    private static void checkScaling(List<Result> results, Options options, List<String> failures) {
+        if (results.size() < 2) return;
+        Result smallest = results.stream().min(Comparator.comparingInt(result -> result.classes)).get();
+        for (Result result : results) {
+            if (result.classes <= smallest.classes) continue;
+            if (result.throughput < smallest.throughput * (1 - options.maxScalingLoss)) {
+                failures.add(String.format(Locale.ROOT, "%s stripped %.0f classes/s, more than %.0f%% below %s (%.0f classes/s)",
+                        result.name, result.throughput, options.maxScalingLoss * 100, smallest.name, smallest.throughput));
+            }
+        }
+    }
+
+    /**
+     * Fail the suite if any scenario is slower, or uses more memory, than the same scenario of a recorded baseline.
+     */
+    private static void checkBaseline(List<Result> results, Options options, List<String> failures) throws IOException {
+        List<Result> baseline = GSON.fromJson(Files.readString(options.baseline), new TypeToken<List<Result>>() {}.getType());
+        for (Result result : results) {
+            for (Result previous : baseline) {
+                if (!previous.name.equals(result.name)) continue;
+                if (result.throughput < previous.throughput * (1 - options.tolerance)) {
+                    failures.add(String.format(Locale.ROOT, "%s stripped %.0f classes/s, baseline %.0f classes/s", result.name, result.throughput, previous.throughput));
+                }
+                if (result.peakRssMb > 0 && previous.peakRssMb > 0 && result.peakRssMb > previous.peakRssMb * (1 + options.tolerance)) {
+                    failures.add(result.name + " peaked at " + result.peakRssMb + " MB RSS, baseline " + previous.peakRssMb + " MB");
+                }
+            }
+        }
+    }
+
+    /**
+     * Runs in the forked JVM. Strips a single jar, then writes the time taken, GC time & peak RSS of this JVM.
+     */
+    private static void child(String[] args) throws IOException {
+        Lazy lazy = new Lazy(args[3]);
+        long start = System.nanoTime();
+        StripResult result;
+        try {
+            result = lazy.strip(new File(args[1]), new File(args[2]));
+        } catch (LazyException e) {
+            e.printStackTrace();
+            System.exit(1);
+            return;
+        } finally {
+            lazy.close();
+        }
+
+        Result stats = new Result();
+        stats.millis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        stats.stripped = result.classes();
+        for (GarbageCollectorMXBean collector : ManagementFactory.getGarbageCollectorMXBeans()) {
+            stats.gcMillis += Math.max(0, collector.getCollectionTime());
+            stats.gcCount += Math.max(0, collector.getCollectionCount());
+        }
+        stats.peakRssMb = peakRssMb();
+        Files.writeString(Path.of(args[4]), GSON.toJson(stats));
+    }
+
+    /**
+     * @return The peak resident set size of this JVM in megabytes, or -1 if the platform doesn't report it
+     */
+    private static long peakRssMb() {
+        Path status = Path.of("/proc/self/status");
+        if (!Files.isReadable(status)) return -1;
+        try (Stream<String> lines = Files.lines(status)) {
+            return lines.filter(line -> line.startsWith("VmHWM:"))
+                    .map(line -> Long.parseLong(line.replaceAll("[^0-9]", "")) / 1024)
+                    .findFirst().orElse(-1L);
+        } catch (IOException e) {
+            return -1;
+        }
+    }
+
+    private static void delete(Path directory) throws IOException {
+        try (Stream<Path> files = Files.walk(directory)) {
+            files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+
+    /**
+     * A jar size & the heap it must be stripped within.
+     *
+     * @param classes The number of classes in the jar
+     * @param heap The maximum heap size, as given to `-Xmx`
+     */
+    private record Scenario(int classes, String heap) {}
+
+    /**
+     * Measurements of a single scenario, also the format of recorded baselines.
+     */
+    private static final class Result {
+        private String name;
+        private int classes;
+        private int stripped;
+        private long millis;
+        private double throughput;
+        private long gcMillis;
+        private long gcCount;
+        private long peakRssMb;
+    }
+
+    /**
+     * Command line options of the suite.
+     */
+    private static final class Options {
+        private final List<Scenario> scenarios = new ArrayList<>();
+        private double methodScale = 1.0D;
+        private int annotateEvery = 8;
+        private int retainEvery = 4;
+        private double resourcesPerClass = 0.1D;
+        private int resourceKb = 16;
+        private int exempt = 4;
+        private int exclude = 4;
+        private int minThroughput = 0;
+        private long maxRssMb = 0;
+        private double maxScalingLoss = 0.5D;
+        private double tolerance = 0.25D;
+        private Path baseline;
+        private Path record;
+        private Path work = Path.of("target", "scaling");
+        private boolean keep = false;
+
+        private static Options parse(String[] args) {
+            Options options = new Options();
+            for (int x = 0; x < args.length; x++) {
+                String option = args[x];
+                if (option.equals("--keep")) {
+                    options.keep = true;
+                    continue;
+                }
+                if (x + 1 >= args.length) throw new IllegalArgumentException("Missing value for " + option);
+                String value = args[++x];
+                try {
+                    switch (option) {
+                        case "--scenario" -> {
+                            String[] pair = value.split(":", 2);
+                            if (pair.length != 2) throw new IllegalArgumentException("Scenarios are given as <classes:heap>, such as 10000:256m");
+                            options.scenarios.add(new Scenario(Integer.parseInt(pair[0]), pair[1]));
+                        }
+                        case "--method-scale" -> options.methodScale = Double.parseDouble(value);
+                        case "--annotate-every" -> options.annotateEvery = Integer.parseInt(value);
+                        case "--retain-every" -> options.retainEvery = Math.max(1, Integer.parseInt(value));
+                        case "--resources-per-class" -> options.resourcesPerClass = Double.parseDouble(value);
+                        case "--resource-kb" -> options.resourceKb = Integer.parseInt(value);
+                        case "--exempt" -> options.exempt = Integer.parseInt(value);
+                        case "--exclude" -> options.exclude = Integer.parseInt(value);
+                        case "--min-throughput" -> options.minThroughput = Integer.parseInt(value);
+                        case "--max-rss-mb" -> options.maxRssMb = Long.parseLong(value);
+                        case "--max-scaling-loss" -> options.maxScalingLoss = Double.parseDouble(value);
+                        case "--tolerance" -> options.tolerance = Double.parseDouble(value);
+                        case "--baseline" -> options.baseline = Path.of(value);
+                        case "--record" -> options.record = Path.of(value);
+                        case "--work" -> options.work = Path.of(value);
+                        default -> throw new IllegalArgumentException("Unknown option " + option);
+                    }
+                } catch (NumberFormatException e) {
+                    throw new IllegalArgumentException("Invalid value for " + option + ": " + value);
+                }
+            }
+
+            if (options.exempt + options.exclude > SyntheticClasses.PACKAGES) {
+                throw new IllegalArgumentException("At most " + SyntheticClasses.PACKAGES + " packages can be exempt or excluded");
+            }
+            if (options.scenarios.isEmpty()) {
+                options.scenarios.add(new Scenario(1_000, "128m"));
+                options.scenarios.add(new Scenario(10_000, "256m"));
+                options.scenarios.add(new Scenario(100_000, "1g"));
+            }
+            return options;
+        }
+
+        private static void usage() {
+            System.out.println("Usage: java -cp benchmarks.jar life.savag3.lazy.benchmark.ScalingSuite [--scenario <classes:heap>]...");
+            System.out.println("       [--method-scale 1.0] [--annotate-every 8] [--retain-every 4] [--resources-per-class 0.1] [--resource-kb 16]");
+            System.out.println("       [--exempt 4] [--exclude 4] [--min-throughput 0] [--max-rss-mb 0] [--max-scaling-loss 0.5]");
+            System.out.println("       [--baseline results.json] [--record results.json] [--tolerance 0.25] [--work target/scaling] [--keep]");
+        }
+    }
+}
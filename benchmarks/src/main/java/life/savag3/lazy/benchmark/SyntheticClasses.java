@@ -0,0 +1,281 @@
+package life.savag3.lazy.benchmark;
+
+import org.objectweb.asm.AnnotationVisitor;
+import org.objectweb.asm.ClassWriter;
+import org.objectweb.asm.FieldVisitor;
+import org.objectweb.asm.MethodVisitor;
+import org.objectweb.asm.Opcodes;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+import java.util.jar.Attributes;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+import java.util.jar.Manifest;
+
+/**
+ * Generates benchmark inputs locally, so the benchmarks never need to download real jars.
+ *
+ * @author Jacob C (Savag3life)
+ * @since 2026-10-18
+ */
+public final class SyntheticClasses {
+
+    public static final String RETAIN_ANNOTATION = "Llife/savag3/lazy/benchmark/RetainAPI;";
+    public static final int PACKAGES = 64; // Generated classes are spread over this many packages, see #packageName(int)
+
+    private static final String[] RETURN_TYPES = {"V", "I", "J", "Z", "D", "Ljava/lang/String;", "[I", "Ljava/util/List;"};
+    private static final String[] PARAM_TYPES = {"I", "J", "Ljava/lang/String;", "[I", "D", "Ljava/lang/Object;", "[[Ljava/lang/String;"};
+
+    /**
+     * Representative class shapes.
+     */
+    public enum Shape {
+        // A few methods with thousands of instructions each
+        HUGE_METHODS,
+        // Hundreds of small methods with varied descriptors
+        SMALL_METHODS,
+        // Fields & methods carrying several annotations each
+        ANNOTATED
+    }
+
+    /**
+     * Shape of a generated jar.
+     *
+     * @param classes The number of classes to generate
+     * @param methodScale Multiplier applied to the number of instructions in each method
+     * @param annotateEvery One in this many members of HUGE_METHODS & SMALL_METHODS classes is annotated, 0 for none.
+     *                      Members of ANNOTATED classes are always annotated.
+     * @param retainEvery One in this many annotated members also carries {@link #RETAIN_ANNOTATION}
+     * @param resources The number of resources to generate
+     * @param resourceSize The size of each resource in bytes
+     */
+    public record Profile(int classes, double methodScale, int annotateEvery, int retainEvery, int resources, int resourceSize) {
+
+        public static Profile of(int classes, int resources, int resourceSize) {
+            return new Profile(classes, 1.0D, 0, 4, resources, resourceSize);
+        }
+    }
+
+    private SyntheticClasses() {}
+
+    /**
+     * @param index The package index, from 0 to {@link #PACKAGES} - 1
+     * @return The internal name of the generated package `life/savag3/synthetic/p0`
+     */
+    public static String packageName(int index) {
+        return "life/savag3/synthetic/p" + index;
+    }
+
+    /**
+     * Generate a class of the given shape.
+     *
+     * @param name The internal class name `life/savag3/example/Core`
+     * @param shape The shape of the class
+     * @param seed Seed used to vary the generated members
+     * @return The class file bytes
+     */
+    public static byte[] generate(String name, Shape shape, long seed) {
+        return generate(name, shape, Profile.of(1, 0, 0), seed);
+    }
+
+    /**
+     * Generate a class of the given shape, sized & annotated as described by a profile.
+     *
+     * @param name The internal class name `life/savag3/example/Core`
+     * @param shape The shape of the class
+     * @param profile The method size & annotation density of the class
+     * @param seed Seed used to vary the generated members
+     * @return The class file bytes
+     */
+    public static byte[] generate(String name, Shape shape, Profile profile, long seed) {
+        Random random = new Random(seed);
+        ClassWriter writer = new ClassWriter(ClassWriter.COMPUTE_MAXS);
+        writer.visit(Opcodes.V17, Opcodes.ACC_PUBLIC | Opcodes.ACC_SUPER, name, null, "java/lang/Object", null);
+        writer.visitSource(name.substring(name.lastIndexOf('/') + 1) + ".java", null);
+
+        MethodVisitor init = writer.visitMethod(Opcodes.ACC_PUBLIC, "<init>", "()V", null, null);
+        init.visitCode();
+        init.visitVarInsn(Opcodes.ALOAD, 0);
+        init.visitMethodInsn(Opcodes.INVOKESPECIAL, "java/lang/Object", "<init>", "()V", false);
+        init.visitInsn(Opcodes.RETURN);
+        init.visitMaxs(0, 0);
+        init.visitEnd();
+
+        switch (shape) {
+            case HUGE_METHODS -> {
+                for (int x = 0; x < 4; x++) writeMethod(writer, name, "huge" + x, size(4000, profile), annotated(profile, random), profile, random);
+            }
+            case SMALL_METHODS -> {
+                for (int x = 0; x < 16; x++) writeField(writer, "field" + x, annotated(profile, random), profile, random);
+                for (int x = 0; x < 250; x++) writeMethod(writer, name, "small" + x, size(6, profile), annotated(profile, random), profile, random);
+            }
+            case ANNOTATED -> {
+                for (int x = 0; x < 32; x++) writeField(writer, "field" + x, true, profile, random);
+                for (int x = 0; x < 64; x++) writeMethod(writer, name, "annotated" + x, size(20, profile), true, profile, random);
+            }
+        }
+
+        writer.visitEnd();
+        return writer.toByteArray();
+    }
+
+    /**
+     * Generate a jar of classes with a mix of shapes, plus some resources.
+     *
+     * @param path Where to write the jar
+     * @param classes The number of classes to generate
+     * @param resources The number of resources to generate
+     * @param resourceSize The size of each resource in bytes
+     * @param seed Seed used to vary the generated classes
+     */
+    public static void writeJar(Path path, int classes, int resources, int resourceSize, long seed) throws IOException {
+        writeJar(path, Profile.of(classes, resources, resourceSize), seed);
+    }
+
+    /**
+     * Generate a jar of classes with a mix of shapes, plus some resources, as described by a profile.
+     * Classes are spread evenly over {@link #PACKAGES} packages.
+     *
+     * @param path Where to write the jar
+     * @param profile The shape of the jar
+     * @param seed Seed used to vary the generated classes
+     */
+    public static void writeJar(Path path, Profile profile, long seed) throws IOException {
+        Manifest manifest = new Manifest();
+        manifest.getMainAttributes().put(Attributes.Name.MANIFEST_VERSION, "1.0");
+
+        Random random = new Random(seed);
+        Shape[] shapes = Shape.values();
+        try (OutputStream file = new BufferedOutputStream(Files.newOutputStream(path));
+             JarOutputStream jar = new JarOutputStream(file, manifest)) {
+            for (int x = 0; x < profile.classes(); x++) {
+                String name = packageName(x % PACKAGES) + "/Generated" + x;
+                // Mostly small classes, as in real jars
+                Shape shape = x % 10 == 0 ? Shape.HUGE_METHODS : shapes[1 + random.nextInt(shapes.length - 1)];
+                jar.putNextEntry(new JarEntry(name + ".class"));
+                jar.write(generate(name, shape, profile, random.nextLong()));
+                jar.closeEntry();
+            }
+
+            byte[] resource = new byte[profile.resourceSize()];
+            for (int x = 0; x < profile.resources(); x++) {
+                // Half random, half repeated, so resources compress like real ones
+                random.nextBytes(resource);
+                for (int y = resource.length / 2; y < resource.length; y++) resource[y] = (byte) (y % 31);
+                jar.putNextEntry(new JarEntry("assets/resource" + x + ".bin"));
+                jar.write(resource);
+                jar.closeEntry();
+            }
+        }
+    }
+
+    private static int size(int size, Profile profile) {
+        return Math.max(1, (int) Math.round(size * profile.methodScale()));
+    }
+
+    private static boolean annotated(Profile profile, Random random) {
+        return profile.annotateEvery() > 0 && random.nextInt(profile.annotateEvery()) == 0;
+    }
+
+    private static void writeField(ClassWriter writer, String name, boolean annotated, Profile profile, Random random) {
+        int access = random.nextBoolean() ? Opcodes.ACC_PUBLIC : Opcodes.ACC_PRIVATE;
+        if (random.nextBoolean()) access |= Opcodes.ACC_STATIC;
+
+        FieldVisitor field = writer.visitField(access, name, PARAM_TYPES[random.nextInt(PARAM_TYPES.length)], null, null);
+        if (annotated) {
+            writeAnnotations(field.visitAnnotation("Ljava/lang/Deprecated;", true), random);
+            if (random.nextInt(profile.retainEvery()) == 0) field.visitAnnotation(RETAIN_ANNOTATION, false).visitEnd();
+            writeAnnotations(field.visitAnnotation("Llife/savag3/lazy/benchmark/Meta;", false), random);
+        }
+        field.visitEnd();
+    }
+
+    private static void writeMethod(ClassWriter writer, String owner, String name, int size, boolean annotated, Profile profile, Random random) {
+        StringBuilder descriptor = new StringBuilder("(");
+        int params = random.nextInt(5);
+        for (int x = 0; x < params; x++) descriptor.append(PARAM_TYPES[random.nextInt(PARAM_TYPES.length)]);
+        String returnType = RETURN_TYPES[random.nextInt(RETURN_TYPES.length)];
+        descriptor.append(')').append(returnType);
+
+        int access = switch (random.nextInt(4)) {
+            case 0 -> Opcodes.ACC_PRIVATE;
+            case 1 -> Opcodes.ACC_PROTECTED;
+            default -> Opcodes.ACC_PUBLIC;
+        };
+        access |= Opcodes.ACC_STATIC;
+
+        MethodVisitor method = writer.visitMethod(access, name, descriptor.toString(), null, null);
+        if (annotated) {
+            writeAnnotations(method.visitAnnotation("Ljava/lang/Deprecated;", true), random);
+            if (random.nextInt(profile.retainEvery()) == 0) method.visitAnnotation(RETAIN_ANNOTATION, false).visitEnd();
+            writeAnnotations(method.visitAnnotation("Llife/savag3/lazy/benchmark/Meta;", false), random);
+        }
+
+        method.visitCode();
+        // Straight line arithmetic, string building & calls, enough to exercise the constant pool
+        int local = 32;
+        method.visitInsn(Opcodes.ICONST_0);
+        method.visitVarInsn(Opcodes.ISTORE, local);
+        for (int x = 0; x < size; x++) {
+            switch (x % 4) {
+                case 0 -> {
+                    method.visitVarInsn(Opcodes.ILOAD, local);
+                    method.visitLdcInsn(random.nextInt());
+                    method.visitInsn(Opcodes.IADD);
+                    method.visitVarInsn(Opcodes.ISTORE, local);
+                }
+                case 1 -> {
+                    method.visitLdcInsn(name + x);
+                    method.visitMethodInsn(Opcodes.INVOKEVIRTUAL, "java/lang/String", "length", "()I", false);
+                    method.visitInsn(Opcodes.POP);
+                }
+                case 2 -> {
+                    method.visitVarInsn(Opcodes.ILOAD, local);
+                    method.visitMethodInsn(Opcodes.INVOKESTATIC, "java/lang/Integer", "valueOf", "(I)Ljava/lang/Integer;", false);
+                    method.visitInsn(Opcodes.POP);
+                }
+                default -> {
+                    method.visitFieldInsn(Opcodes.GETSTATIC, "java/lang/System", "out", "Ljava/io/PrintStream;");
+                    method.visitLdcInsn(owner + "#" + x);
+                    method.visitMethodInsn(Opcodes.INVOKEVIRTUAL, "java/io/PrintStream", "println", "(Ljava/lang/String;)V", false);
+                }
+            }
+        }
+
+        switch (returnType) {
+            case "V" -> method.visitInsn(Opcodes.RETURN);
+            case "I", "Z" -> {
+                method.visitVarInsn(Opcodes.ILOAD, local);
+                method.visitInsn(Opcodes.IRETURN);
+            }
+            case "J" -> {
+                method.visitInsn(Opcodes.LCONST_1);
+                method.visitInsn(Opcodes.LRETURN);
+            }
+            case "D" -> {
+                method.visitInsn(Opcodes.DCONST_1);
+                method.visitInsn(Opcodes.DRETURN);
+            }
+            default -> {
+                method.visitInsn(Opcodes.ACONST_NULL);
+                method.visitInsn(Opcodes.ARETURN);
+            }
+        }
+        method.visitMaxs(0, 0);
+        method.visitEnd();
+    }
+
+    private static void writeAnnotations(AnnotationVisitor annotation, Random random) {
+        annotation.visit("since", "1." + random.nextInt(20));
+        annotation.visit("level", random.nextInt(10));
+        AnnotationVisitor tags = annotation.visitArray("tags");
+        for (int x = 0; x < 3; x++) tags.visit(null, "tag" + random.nextInt(100));
+        tags.visitEnd();
+        annotation.visitEnd();
+    }
+}
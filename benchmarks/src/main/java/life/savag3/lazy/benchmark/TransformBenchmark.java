@@ -0,0 +1,50 @@
+package life.savag3.lazy.benchmark;
+
+import life.savag3.lazy.Config;
+import life.savag3.lazy.LazyClassTransformer;
+import life.savag3.lazy.LazyConfig;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+
+/**
+ * Measures {@link LazyClassTransformer#transform()} on representative class shapes, for each engine.
+ *
+ * @author Jacob C (Savag3life)
+ * @since 2026-10-18
+ */
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class TransformBenchmark {
+
+    @Param({"HUGE_METHODS", "SMALL_METHODS", "ANNOTATED"})
+    public SyntheticClasses.Shape shape;
+
+    @Param({"TREE", "VISITOR"})
+    public LazyClassTransformer.Engine engine;
+
+    private LazyConfig config;
+    private byte[] bytes;
+
+    @Setup
+    public void setup() {
+        Config.ENGINE = this.engine;
+        Config.RETENTION_ANNOTATIONS = List.of(SyntheticClasses.RETAIN_ANNOTATION);
+        this.config = LazyConfig.current();
+        this.bytes = SyntheticClasses.generate("life/savag3/synthetic/Benchmark", this.shape, 42L);
+    }
+
+    @Benchmark
+    public byte[] transform() {
+        return new LazyClassTransformer(this.bytes, this.config).transform();
+    }
+}
@@ -0,0 +1,471 @@
+package life.savag3.lazy;
+
+import org.objectweb.asm.AnnotationVisitor;
+import org.objectweb.asm.ClassReader;
+import org.objectweb.asm.ClassVisitor;
+import org.objectweb.asm.FieldVisitor;
+import org.objectweb.asm.MethodVisitor;
+import org.objectweb.asm.Opcodes;
+import org.objectweb.asm.RecordComponentVisitor;
+import org.objectweb.asm.TypePath;
+
+import java.io.IOException;
+import java.lang.reflect.Array;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.zip.CRC32;
+
+/**
+ * Index of the API of a stripped output, written next to it as `&lt;output&gt;.api`. Each class is listed with a hash of what
+ * other modules can compile against (its header, public & protected members with their signatures, annotations & constant
+ * values) and the whole output with a digest of every class hash. Build tools can compare indexes of two builds & skip
+ * recompiling or republishing downstream modules when only implementation details changed.
+ * <pre>
+ * # Lazy API index v2
+ * api &lt;digest of the whole output&gt;
+ * &lt;class hash&gt; &lt;crc&gt;:&lt;size&gt; &lt;entry name&gt;
+ * </pre>
+ * Hashes ignore member order, private & synthetic members, code and debug attributes. The CRC & size of the class bytes
+ * are kept so the next build only hashes classes whose bytes changed, the rest reuse the hash of the previous index.
+ * Safe to update from every worker thread at once.
+ *
+ * @author Jacob C (Savag3life)
+ * @since 2026-10-18
+ */
+public final class ApiIndex {
+
+    private static final String HEADER = "# Lazy API index v2";
+    private static final int HASH_BYTES = 16; // Hashes are SHA-256 truncated to 128 bits, plenty to tell two APIs apart
+
+    // Digests are expensive to look up, so each thread keeps one for every class it hashes
+    private static final ThreadLocal<MessageDigest> DIGESTS = ThreadLocal.withInitial(ApiIndex::sha256);
+
+    private final Map<String, Record> previous; // Classes of the index written by the last run, by entry name
+    private String digest; // Digest of the index last written, null if there was no index
+    private final Map<String, Record> classes = new ConcurrentHashMap<>(); // Classes of this run, by entry name
+
+    private final LongAdder hashed = new LongAdder(); // Classes parsed & hashed
+    private final LongAdder reused = new LongAdder(); // Classes whose hash was reused, as their bytes didn't change
+
+    private ApiIndex(Map<String, Record> previous, String digest) {
+        this.previous = previous;
+        this.digest = digest;
+    }
+
+    /**
+     * Get the index file of an output jar or directory.
+     *
+     * @param output The output jar or directory
+     * @return The index file, next to the output
+     */
+    public static Path pathOf(Path output) {
+        return output.resolveSibling(output.getFileName() + ".api");
+    }
+
+    /**
+     * Start a new index, reusing the class hashes of an existing index where the class bytes haven't changed.
+     * An index which is missing, unreadable or written by another version is ignored.
+     *
+     * @param file The index written by the last run
+     * @return The new, empty index
+     */
+    public static ApiIndex open(Path file) {
+        if (!Files.isRegularFile(file)) return new ApiIndex(Map.of(), null);
+        try {
+            List<String> lines = Files.readAllLines(file, StandardCharsets.UTF_8);
+            if (lines.size() < 2 || !lines.get(0).equals(HEADER) || !lines.get(1).startsWith("api ")) return new ApiIndex(Map.of(), null);
+
+            Map<String, Record> previous = new HashMap<>();
+            for (String line : lines.subList(2, lines.size())) {
+                String[] parts = line.split(" ", 3);
+                int separator = parts.length == 3 ? parts[1].indexOf(':') : -1;
+                if (separator == -1) continue;
+                previous.put(parts[2], new Record(Long.parseLong(parts[1], 0, separator, 16), Long.parseLong(parts[1].substring(separator + 1)), parts[0]));
+            }
+            return new ApiIndex(previous, lines.get(1).substring(4));
+        } catch (IOException | NumberFormatException e) {
+            Log.debug("Ignoring unreadable API index. (" + file.toAbsolutePath() + ")", e);
+            return new ApiIndex(Map.of(), null);
+        }
+    }
+
+    /**
+     * Add a class, hashing it only if its bytes changed since it was last indexed.
+     *
+     * @param name The entry name `life/savag3/example/Core.class`
+     * @param crc The CRC-32 of the class bytes, or -1 if unknown. Zero is a valid CRC
+     * @param size The size of the class bytes
+     * @param read Reads the class bytes, only called when the class needs hashing or its CRC is unknown
+     */
+    public void add(String name, long crc, long size, Callable<byte[]> read) throws Exception {
+        if (crc >= 0 && reuse(name, crc, size)) return;
+
+        byte[] bytes = read.call();
+        if (crc < 0) {
+            CRC32 checksum = new CRC32();
+            checksum.update(bytes);
+            crc = checksum.getValue();
+            if (reuse(name, crc, bytes.length)) return;
+        }
+        this.classes.put(name, new Record(crc, bytes.length, hash(name, bytes)));
+        this.hashed.increment();
+    }
+
+    /**
+     * Add a class held in memory, hashing it only if its bytes changed since it was last indexed.
+     *
+     * @param name The entry name `life/savag3/example/Core.class`
+     * @param bytes The class bytes
+     */
+    public void add(String name, byte[] bytes) {
+        CRC32 checksum = new CRC32();
+        checksum.update(bytes);
+        if (reuse(name, checksum.getValue(), bytes.length)) return;
+        this.classes.put(name, new Record(checksum.getValue(), bytes.length, hash(name, bytes)));
+        this.hashed.increment();
+    }
+
+    /**
+     * Remove a class which is no longer part of the output.
+     *
+     * @param name The entry name
+     */
+    public void remove(String name) {
+        this.classes.remove(name);
+    }
+
+    /**
+     * Write the index, leaving an existing index untouched when it's unchanged.
+     *
+     * @param file The index file
+     * @return The digest of the whole output
+     */
+    public String write(Path file) throws IOException {
+        Map<String, Record> sorted = new TreeMap<>(this.classes);
+        MessageDigest digest = sha256();
+        for (Map.Entry<String, Record> entry : sorted.entrySet()) {
+            digest.update((entry.getKey() + ' ' + entry.getValue().hash() + '\n').getBytes(StandardCharsets.UTF_8));
+        }
+        String api = hex(digest.digest());
+
+        StringBuilder content = new StringBuilder(HEADER).append('\n').append("api ").append(api).append('\n');
+        for (Map.Entry<String, Record> entry : sorted.entrySet()) {
+            Record record = entry.getValue();
+            content.append(record.hash()).append(' ').append(Long.toHexString(record.crc())).append(':').append(record.size())
+                    .append(' ').append(entry.getKey()).append('\n');
+        }
+
+        byte[] bytes = content.toString().getBytes(StandardCharsets.UTF_8);
+        if (!Files.isRegularFile(file) || !Arrays.equals(Files.readAllBytes(file), bytes)) {
+            Path parent = file.toAbsolutePath().getParent();
+            if (parent != null) Files.createDirectories(parent);
+            Files.write(file, bytes);
+        }
+
+        Log.info("API index: %d classes (%d hashed, %d reused), API %s%s", sorted.size(), this.hashed.sum(), this.reused.sum(), api,
+                this.digest == null ? "" : api.equals(this.digest) ? " unchanged" : " changed");
+        this.digest = api;
+        this.hashed.reset();
+        this.reused.reset();
+        return api;
+    }
+
+    private boolean reuse(String name, long crc, long size) {
+        Record record = this.classes.get(name);
+        if (record == null) record = this.previous.get(name);
+        if (record == null || record.crc() != crc || record.size() != size) return false;
+
+        this.classes.put(name, record);
+        this.reused.increment();
+        return true;
+    }
+
+    /**
+     * Hash the API of a single class. Module descriptors have nothing to hide, so they're hashed whole.
+     *
+     * @param name The entry name
+     * @param bytes The class bytes
+     * @return The API hash
+     */
+    static String hash(String name, byte[] bytes) {
+        MessageDigest digest = DIGESTS.get();
+        digest.reset();
+        if (name.endsWith("module-info.class")) return hex(digest.digest(bytes));
+
+        Surface surface = new Surface();
+        new ClassReader(bytes).accept(surface, ClassReader.SKIP_CODE | ClassReader.SKIP_DEBUG | ClassReader.SKIP_FRAMES);
+        surface.digest(digest);
+        return hex(digest.digest());
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    private static String hex(byte[] digest) {
+        StringBuilder hex = new StringBuilder(HASH_BYTES * 2);
+        for (int x = 0; x < HASH_BYTES; x++) hex.append(Character.forDigit((digest[x] >> 4) & 0xF, 16)).append(Character.forDigit(digest[x] & 0xF, 16));
+        return hex.toString();
+    }
+
+    /**
+     * Collects the parts of a class which other modules can compile against. The header & every member are each encoded
+     * as they're visited without building strings, then the header & the sorted member encodings are digested whole,
+     * so reordering members doesn't change the API hash & every byte of the surface goes through SHA-256.
+     */
+    private static final class Surface extends ClassVisitor {
+
+        // Flags which don't change what compiles against a member: ACC_SUPER / ACC_SYNCHRONIZED, ACC_VOLATILE,
+        // ACC_TRANSIENT, ACC_NATIVE & ACC_STRICT
+        private static final int IGNORED_FLAGS = Opcodes.ACC_SYNCHRONIZED | Opcodes.ACC_VOLATILE | Opcodes.ACC_TRANSIENT | Opcodes.ACC_NATIVE | Opcodes.ACC_STRICT;
+
+        private final Hash header = new Hash();
+        private final List<byte[]> members = new ArrayList<>();
+        private String name;
+
+        private Surface() {
+            super(Opcodes.ASM9);
+        }
+
+        @Override
+        public void visit(int version, int access, String name, String signature, String superName, String[] interfaces) {
+            this.name = name;
+            this.header.add('C').add(access & ~IGNORED_FLAGS).add(name).add(signature).add(superName);
+            if (interfaces != null) {
+                for (String type : interfaces) this.header.add(type);
+            }
+        }
+
+        @Override
+        public void visitInnerClass(String name, String outerName, String innerName, int access) {
+            // The access of a nested class is only recorded here
+            if (name.equals(this.name)) this.header.add('N').add(access & ~IGNORED_FLAGS).add(outerName);
+        }
+
+        @Override
+        public void visitPermittedSubclass(String permittedSubclass) {
+            this.header.add('P').add(permittedSubclass);
+        }
+
+        @Override
+        public AnnotationVisitor visitAnnotation(String descriptor, boolean visible) {
+            return annotation(this.header.add('@').add(descriptor));
+        }
+
+        @Override
+        public AnnotationVisitor visitTypeAnnotation(int typeRef, TypePath typePath, String descriptor, boolean visible) {
+            return annotation(this.header.add('T').add(typeRef).add(typePath == null ? null : typePath.toString()).add(descriptor));
+        }
+
+        @Override
+        public RecordComponentVisitor visitRecordComponent(String name, String descriptor, String signature) {
+            Hash member = new Hash().add('R').add(name).add(descriptor).add(signature);
+            return new RecordComponentVisitor(Opcodes.ASM9) {
+                @Override
+                public AnnotationVisitor visitAnnotation(String descriptor, boolean visible) {
+                    return annotation(member.add('@').add(descriptor));
+                }
+
+                @Override
+                public AnnotationVisitor visitTypeAnnotation(int typeRef, TypePath typePath, String descriptor, boolean visible) {
+                    return annotation(member.add('T').add(typeRef).add(typePath == null ? null : typePath.toString()).add(descriptor));
+                }
+
+                @Override
+                public void visitEnd() {
+                    addMember(member);
+                }
+            };
+        }
+
+        @Override
+        public FieldVisitor visitField(int access, String name, String descriptor, String signature, Object value) {
+            if (!isVisible(access)) return null;
+            Hash member = new Hash().add('F').add(access & ~IGNORED_FLAGS).add(name).add(descriptor).add(signature).addValue(value);
+            return new FieldVisitor(Opcodes.ASM9) {
+                @Override
+                public AnnotationVisitor visitAnnotation(String descriptor, boolean visible) {
+                    return annotation(member.add('@').add(descriptor));
+                }
+
+                @Override
+                public AnnotationVisitor visitTypeAnnotation(int typeRef, TypePath typePath, String descriptor, boolean visible) {
+                    return annotation(member.add('T').add(typeRef).add(typePath == null ? null : typePath.toString()).add(descriptor));
+                }
+
+                @Override
+                public void visitEnd() {
+                    addMember(member);
+                }
+            };
+        }
+
+        @Override
+        public MethodVisitor visitMethod(int access, String name, String descriptor, String signature, String[] exceptions) {
+            if (!isVisible(access)) return null;
+            Hash member = new Hash().add('M').add(access & ~IGNORED_FLAGS).add(name).add(descriptor).add(signature);
+            if (exceptions != null) {
+                for (String exception : exceptions) member.add(exception);
+            }
+            return new MethodVisitor(Opcodes.ASM9) {
+                @Override
+                public AnnotationVisitor visitAnnotationDefault() {
+                    return annotation(member.add('D'));
+                }
+
+                @Override
+                public AnnotationVisitor visitAnnotation(String descriptor, boolean visible) {
+                    return annotation(member.add('@').add(descriptor));
+                }
+
+                @Override
+                public AnnotationVisitor visitParameterAnnotation(int parameter, String descriptor, boolean visible) {
+                    return annotation(member.add('@').add(parameter).add(descriptor));
+                }
+
+                @Override
+                public AnnotationVisitor visitTypeAnnotation(int typeRef, TypePath typePath, String descriptor, boolean visible) {
+                    return annotation(member.add('T').add(typeRef).add(typePath == null ? null : typePath.toString()).add(descriptor));
+                }
+
+                @Override
+                public void visitEnd() {
+                    addMember(member);
+                }
+            };
+        }
+
+        private void addMember(Hash member) {
+            this.members.add(member.toBytes());
+        }
+
+        /**
+         * Digest the header followed by the sorted members, each prefixed by its length.
+         */
+        private void digest(MessageDigest digest) {
+            this.members.sort(Arrays::compare);
+            byte[] header = this.header.toBytes();
+            digest.update(ByteBuffer.allocate(Integer.BYTES).putInt(header.length).array());
+            digest.update(header);
+            for (byte[] member : this.members) {
+                digest.update(ByteBuffer.allocate(Integer.BYTES).putInt(member.length).array());
+                digest.update(member);
+            }
+        }
+
+        /**
+         * Only public & protected members can be compiled against from another package. Synthetic members are
+         * generated by the compiler & never referenced from source.
+         */
+        private static boolean isVisible(int access) {
+            return (access & (Opcodes.ACC_PUBLIC | Opcodes.ACC_PROTECTED)) != 0 && (access & Opcodes.ACC_SYNTHETIC) == 0;
+        }
+
+        /**
+         * Add an annotation & every value of it to a hash, as it's visited.
+         */
+        private static AnnotationVisitor annotation(Hash hash) {
+            hash.add('(');
+            return new AnnotationVisitor(Opcodes.ASM9) {
+                @Override
+                public void visit(String name, Object value) {
+                    hash.add(name).addValue(value);
+                }
+
+                @Override
+                public void visitEnum(String name, String descriptor, String value) {
+                    hash.add(name).add('E').add(descriptor).add(value);
+                }
+
+                @Override
+                public AnnotationVisitor visitAnnotation(String name, String descriptor) {
+                    return annotation(hash.add(name).add('@').add(descriptor));
+                }
+
+                @Override
+                public AnnotationVisitor visitArray(String name) {
+                    return annotation(hash.add(name).add('['));
+                }
+
+                @Override
+                public void visitEnd() {
+                    hash.add(')');
+                }
+            };
+        }
+    }
+
+    /**
+     * Canonical encoding of the parts of a class or member, digested once the class is read. Strings are prefixed by
+     * their length & null parts have their own marker, so `ab` + `c` & `a` + `bc` encode differently.
+     */
+    private static final class Hash {
+
+        private byte[] bytes = new byte[64];
+        private int length;
+
+        private Hash add(char part) {
+            return put((byte) (part >>> 8)).put((byte) part);
+        }
+
+        private Hash add(int part) {
+            for (int shift = Integer.SIZE - 8; shift >= 0; shift -= 8) put((byte) (part >>> shift));
+            return this;
+        }
+
+        private Hash add(String part) {
+            if (part == null) return add(-1);
+            add(part.length());
+            for (int x = 0; x < part.length(); x++) add(part.charAt(x));
+            return this;
+        }
+
+        /**
+         * Add a constant, keeping its type so `1` & `"1"` encode differently.
+         */
+        private Hash addValue(Object value) {
+            if (value == null) return add(-1);
+            if (!value.getClass().isArray()) return add(value.getClass().getName()).add(value.toString());
+
+            add(value.getClass().getName()).add(Array.getLength(value));
+            for (int x = 0; x < Array.getLength(value); x++) add(String.valueOf(Array.get(value, x)));
+            return this;
+        }
+
+        private Hash put(byte part) {
+            if (this.length == this.bytes.length) this.bytes = Arrays.copyOf(this.bytes, this.length * 2);
+            this.bytes[this.length++] = part;
+            return this;
+        }
+
+        private byte[] toBytes() {
+            return Arrays.copyOf(this.bytes, this.length);
+        }
+    }
+
+    /**
+     * A class of the index.
+     *
+     * @param crc The CRC-32 of the class bytes
+     * @param size The size of the class bytes
+     * @param hash The API hash of the class
+     */
+    private record Record(long crc, long size, String hash) {}
+}
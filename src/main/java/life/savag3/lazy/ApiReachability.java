@@ -0,0 +1,212 @@
+package life.savag3.lazy;
+
+import org.objectweb.asm.AnnotationVisitor;
+import org.objectweb.asm.ClassReader;
+import org.objectweb.asm.ClassVisitor;
+import org.objectweb.asm.FieldVisitor;
+import org.objectweb.asm.MethodVisitor;
+import org.objectweb.asm.Opcodes;
+import org.objectweb.asm.TypePath;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Reference graph of the classes in a jar, used to find classes which can't be reached from the public API.
+ * Public classes are the roots of the graph. A class references the classes named by its supertypes, generic signature,
+ * annotations, permitted subclasses, enclosing class & public or protected nested classes, along with the types named
+ * by the descriptors, generic signatures, exceptions & annotations of its public & protected members.
+ * <p>
+ * Code & private or package-private members are ignored, so helpers only used by method bodies are unreachable.
+ *
+ * @author Jacob C (Savag3life)
+ * @since 2026-10-18
+ */
+public final class ApiReachability {
+
+    private static final int API_ACCESS = Opcodes.ACC_PUBLIC | Opcodes.ACC_PROTECTED;
+
+    private final Map<String, Node> nodes = new HashMap<>(); // Every class of the jar, by internal name
+    private final Set<String> roots = new HashSet<>(); // Classes which are always reachable
+
+    /**
+     * Add a class to the graph. A class found more than once (multi-release jars) keeps the references of every copy.
+     *
+     * @param node The scanned class
+     */
+    public void add(Node node) {
+        this.nodes.merge(node.name(), node, Node::merge);
+        if (node.root()) this.roots.add(node.name());
+    }
+
+    /**
+     * Mark a class as reachable, regardless of its access. Used for classes named outside of class files, like service providers.
+     *
+     * @param name The internal name of the class `life/savag3/lazy/Lazy`
+     */
+    public void addRoot(String name) {
+        this.roots.add(name);
+    }
+
+    /**
+     * Walk the graph from the roots.
+     *
+     * @return The internal names of every reachable class in the graph
+     */
+    public Set<String> reachable() {
+        Set<String> reached = new HashSet<>();
+        Deque<String> queue = new ArrayDeque<>();
+        for (String root : this.roots) {
+            if (this.nodes.containsKey(root) && reached.add(root)) queue.add(root);
+        }
+
+        while (!queue.isEmpty()) {
+            for (String reference : this.nodes.get(queue.poll()).references()) {
+                // References to classes outside of the jar are skipped
+                if (this.nodes.containsKey(reference) && reached.add(reference)) queue.add(reference);
+            }
+        }
+        return reached;
+    }
+
+    /**
+     * Read the API references of a single class. Safe to call from any worker thread.
+     *
+     * @param bytes The class file bytes
+     * @return The class & its references
+     */
+    public static Node scan(byte[] bytes) {
+        Scanner scanner = new Scanner();
+        new ClassReader(bytes).accept(scanner, ClassReader.SKIP_CODE | ClassReader.SKIP_DEBUG | ClassReader.SKIP_FRAMES);
+        Set<String> references = scanner.references.names();
+        references.remove(scanner.name);
+        return new Node(scanner.name, scanner.root, references);
+    }
+
+    /**
+     * A class in the graph.
+     *
+     * @param name The internal name of the class
+     * @param root True if the class is part of the public API
+     * @param references The internal names of the classes referenced by the API of the class
+     */
+    public record Node(String name, boolean root, Set<String> references) {
+
+        private Node merge(Node other) {
+            Set<String> references = new HashSet<>(this.references);
+            references.addAll(other.references);
+            return new Node(this.name, this.root || other.root, references);
+        }
+    }
+
+    /**
+     * Collects the references of a class while it's read.
+     */
+    private static final class Scanner extends ClassVisitor {
+
+        private final ClassReferences references = new ClassReferences();
+        private String name;
+        private boolean root;
+
+        private final FieldVisitor fieldVisitor = new FieldVisitor(Opcodes.ASM9) {
+            @Override
+            public AnnotationVisitor visitAnnotation(String descriptor, boolean visible) {
+                return references.annotation(descriptor);
+            }
+
+            @Override
+            public AnnotationVisitor visitTypeAnnotation(int typeRef, TypePath typePath, String descriptor, boolean visible) {
+                return references.annotation(descriptor);
+            }
+        };
+
+        private final MethodVisitor methodVisitor = new MethodVisitor(Opcodes.ASM9) {
+            @Override
+            public AnnotationVisitor visitAnnotationDefault() {
+                return references.collect(null);
+            }
+
+            @Override
+            public AnnotationVisitor visitAnnotation(String descriptor, boolean visible) {
+                return references.annotation(descriptor);
+            }
+
+            @Override
+            public AnnotationVisitor visitParameterAnnotation(int parameter, String descriptor, boolean visible) {
+                return references.annotation(descriptor);
+            }
+
+            @Override
+            public AnnotationVisitor visitTypeAnnotation(int typeRef, TypePath typePath, String descriptor, boolean visible) {
+                return references.annotation(descriptor);
+            }
+        };
+
+        private Scanner() {
+            super(Opcodes.ASM9);
+        }
+
+        @Override
+        public void visit(int version, int access, String name, String signature, String superName, String[] interfaces) {
+            this.name = name;
+            // Package & module descriptors aren't public, but always belong with the API
+            this.root = (access & Opcodes.ACC_PUBLIC) != 0 || name.equals("module-info") || name.endsWith("package-info");
+
+            if (superName != null) this.references.add(superName);
+            this.references.addAll(interfaces);
+            this.references.addSignature(signature);
+        }
+
+        @Override
+        public void visitOuterClass(String owner, String name, String descriptor) {
+            this.references.add(owner);
+        }
+
+        @Override
+        public void visitInnerClass(String name, String outerName, String innerName, int access) {
+            if (outerName == null) return;
+            if (name.equals(this.name)) {
+                // Nested classes can't be resolved without the class enclosing them
+                this.references.add(outerName);
+            } else if (outerName.equals(this.name) && (access & API_ACCESS) != 0) {
+                this.references.add(name);
+            }
+        }
+
+        @Override
+        public void visitPermittedSubclass(String permittedSubclass) {
+            this.references.add(permittedSubclass);
+        }
+
+        @Override
+        public AnnotationVisitor visitAnnotation(String descriptor, boolean visible) {
+            return this.references.annotation(descriptor);
+        }
+
+        @Override
+        public AnnotationVisitor visitTypeAnnotation(int typeRef, TypePath typePath, String descriptor, boolean visible) {
+            return this.references.annotation(descriptor);
+        }
+
+        @Override
+        public FieldVisitor visitField(int access, String name, String descriptor, String signature, Object value) {
+            if ((access & API_ACCESS) == 0) return null;
+            this.references.addDescriptor(descriptor);
+            this.references.addSignature(signature);
+            return this.fieldVisitor;
+        }
+
+        @Override
+        public MethodVisitor visitMethod(int access, String name, String descriptor, String signature, String[] exceptions) {
+            if ((access & API_ACCESS) == 0) return null;
+            this.references.addDescriptor(descriptor);
+            this.references.addSignature(signature);
+            this.references.addAll(exceptions);
+            return this.methodVisitor;
+        }
+    }
+}
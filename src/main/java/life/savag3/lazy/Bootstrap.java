@@ -1,5 +1,14 @@
 package life.savag3.lazy;
 
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
 /**
  * Bootstrap class to start the program. Also used to escape the static context.
  *
@@ -9,17 +18,236 @@ package life.savag3.lazy;
 public class Bootstrap {
 
     // java -jar Lazy.jar <Path/To/Input.jar> <Path/To/Output.jar> [Path/To/Config.json]
+    // java -jar Lazy.jar --batch [--config Path/To/Config.json] <Input.jar=Output.jar | Path/To/Jobs.txt>...
+    // java -jar Lazy.jar --daemon [--socket Path/To/Lazy.sock]
+    // java -jar Lazy.jar --watch [--config Path/To/Config.json] <Path/To/Input> <Path/To/Output>
+    // java -jar Lazy.jar --client [--socket Path/To/Lazy.sock] <Path/To/Input.jar | --stats | --stop> [Path/To/Output.jar] [Path/To/Config.json]
     // Map: `<>` fields are required, `[]` fields are optional
     public static void main(String[] args) {
 
+        if (args.length > 0 && args[0].equals("--batch")) {
+            batch(args);
+            return;
+        }
+
+        if (args.length > 0 && (args[0].equals("--daemon") || args[0].equals("--client"))) {
+            daemon(args);
+            return;
+        }
+
+        if (args.length > 0 && args[0].equals("--watch")) {
+            watch(args);
+            return;
+        }
+
         if (args.length < 2) {
             System.out.println("Invalid argument counts. Found " + args.length + ", Required 2");
             System.out.println("Usage: java -jar <Path/To/Input.jar> <Path/To/Output.jar> [Path/To/Config.json]");
+            System.out.println("       java -jar --batch [--config Path/To/Config.json] <Input.jar=Output.jar | Path/To/Jobs.txt>...");
+            System.out.println("       java -jar --daemon [--socket Path/To/Lazy.sock]");
+            System.out.println("       java -jar --watch [--config Path/To/Config.json] <Path/To/Input> <Path/To/Output>");
+            System.out.println("       java -jar --client [--socket Path/To/Lazy.sock] <Path/To/Input.jar | --stats | --stop> [Path/To/Output.jar] [Path/To/Config.json]");
             System.out.println("Map: `<>` fields are required, `[]` fields are optional");
             System.exit(1);
         }
 
-        new Lazy(args[0], args[1], args.length == 3 ? args[2] : null);
+        new Lazy(args[0], output(args[1]).getPath(), args.length == 3 ? args[2] : null);
+    }
+
+    /**
+     * Resolve an output path given on the command line. A path ending with a separator names an exploded jar & the
+     * directory is created up front, so it's written as a directory. Any other path which isn't a directory is written as a jar.
+     *
+     * @param path The output path as given
+     * @return The output file
+     */
+    static File output(String path) {
+        File file = new File(path);
+        if (path.endsWith("/") || path.endsWith(File.separator)) {
+            try {
+                Files.createDirectories(file.toPath());
+            } catch (IOException e) {
+                Log.error("Couldn't create output directory. (" + file.getAbsolutePath() + ") exiting", e);
+                Log.flush();
+                System.exit(1);
+            }
+        }
+        return file;
+    }
+
+    /**
+     * Strip the input, then keep the output up to date as the input changes until the process is stopped.
+     */
+    private static void watch(String[] args) {
+        String config = null;
+        List<String> paths = new ArrayList<>();
+        for (int x = 1; x < args.length; x++) {
+            if (args[x].equals("--config") && x + 1 < args.length) {
+                config = args[++x];
+            } else {
+                paths.add(args[x]);
+            }
+        }
+
+        if (paths.size() != 2) {
+            System.out.println("Usage: java -jar --watch [--config Path/To/Config.json] <Path/To/Input> <Path/To/Output>");
+            System.exit(1);
+            return;
+        }
+
+        Lazy lazy = new Lazy(config);
+        try {
+            lazy.watch(new File(paths.get(0)), output(paths.get(1)));
+        } catch (LazyException e) {
+            Log.error(e.getMessage() + " exiting", e.getCause());
+            Log.flush();
+            System.exit(1);
+        } finally {
+            lazy.close();
+        }
+    }
+
+    /**
+     * Start the daemon, or send a request to it.
+     */
+    private static void daemon(String[] args) {
+        Path socket = LazyDaemon.defaultSocket();
+        List<String> rest = new ArrayList<>();
+        for (int x = 1; x < args.length; x++) {
+            if (args[x].equals("--socket") && x + 1 < args.length) {
+                socket = Path.of(args[++x]);
+            } else {
+                rest.add(args[x]);
+            }
+        }
+
+        if (args[0].equals("--daemon")) {
+            try {
+                new LazyDaemon(socket).run();
+            } catch (IOException e) {
+                Log.error("Failed to start Lazy daemon. (" + e.getMessage() + ")", e);
+                Log.flush();
+                System.exit(1);
+            }
+            return;
+        }
+
+        LazyClient client = new LazyClient(socket);
+        if (rest.size() == 1 && (rest.get(0).equals("--stats") || rest.get(0).equals("--stop"))) {
+            try {
+                System.out.println(client.send(rest.get(0).equals("--stats") ? "STATS" : "STOP"));
+            } catch (IOException e) {
+                Log.error("No Lazy daemon running on " + socket.toAbsolutePath() + ". (" + e.getMessage() + ")");
+                Log.flush();
+                System.exit(1);
+            }
+            return;
+        }
+
+        if (rest.size() < 2) {
+            System.out.println("Usage: java -jar --client [--socket Path/To/Lazy.sock] <Path/To/Input.jar | --stats | --stop> [Path/To/Output.jar] [Path/To/Config.json]");
+            System.exit(1);
+            return;
+        }
+
+        boolean stripped = client.strip(rest.get(0), output(rest.get(1)).getPath(), rest.size() == 3 ? rest.get(2) : null);
+        Log.flush();
+        if (!stripped) System.exit(1);
+    }
+
+    /**
+     * Strip every jar listed on the command line in a single run. Exits with status 1 once
+     * every jar has been processed if any of them failed.
+     */
+    private static void batch(String[] args) {
+        String config = null;
+        List<Map.Entry<File, File>> jars = new ArrayList<>();
+
+        for (int x = 1; x < args.length; x++) {
+            if (args[x].equals("--config") && x + 1 < args.length) {
+                config = args[++x];
+            } else if (args[x].contains("=")) {
+                String[] pair = args[x].split("=", 2);
+                jars.add(new AbstractMap.SimpleEntry<>(new File(pair[0]), output(pair[1])));
+            } else if (!readJobs(Path.of(args[x]), jars)) {
+                Log.flush();
+                System.exit(1);
+                return;
+            }
+        }
+
+        if (jars.isEmpty()) {
+            System.out.println("No jars provided for batch mode");
+            System.out.println("Usage: java -jar --batch [--config Path/To/Config.json] <Input.jar=Output.jar | Path/To/Jobs.txt>...");
+            System.exit(1);
+            return;
+        }
+
+        Lazy lazy = new Lazy(config);
+        List<StripResult> results;
+        try {
+            results = lazy.batch(jars);
+        } finally {
+            lazy.close();
+        }
+
+        if (results.stream().anyMatch(StripResult::isFailed)) System.exit(1);
+    }
+
+    /**
+     * Read a jobs file, one `Input.jar Output.jar` pair per line. Paths containing spaces can be quoted,
+     * blank lines & lines starting with `#` are ignored.
+     *
+     * @param path The jobs file
+     * @param jars The list to add each pair to
+     * @return True if the file was read, false otherwise
+     */
+    private static boolean readJobs(Path path, List<Map.Entry<File, File>> jars) {
+        List<String> lines;
+        try {
+            lines = Files.readAllLines(path);
+        } catch (IOException e) {
+            Log.error("Failed to read jobs file: " + path.toAbsolutePath(), e);
+            return false;
+        }
+
+        for (int x = 0; x < lines.size(); x++) {
+            String line = lines.get(x).trim();
+            if (line.isEmpty() || line.startsWith("#")) continue;
+
+            List<String> parts = split(line);
+            if (parts.size() != 2) {
+                Log.error("Invalid line " + (x + 1) + " in jobs file, expected `<Input.jar> <Output.jar>`: " + path.toAbsolutePath());
+                return false;
+            }
+            jars.add(new AbstractMap.SimpleEntry<>(new File(parts.get(0)), output(parts.get(1))));
+        }
+        return true;
+    }
+
+    /**
+     * Split a line on whitespace, keeping quoted parts together.
+     */
+    private static List<String> split(String line) {
+        List<String> parts = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+        boolean quoted = false, started = false;
+
+        for (char c : line.toCharArray()) {
+            if (c == '"') {
+                quoted = !quoted;
+                started = true;
+            } else if (Character.isWhitespace(c) && !quoted) {
+                if (started) parts.add(current.toString());
+                current.setLength(0);
+                started = false;
+            } else {
+                current.append(c);
+                started = true;
+            }
+        }
+        if (started) parts.add(current.toString());
+        return parts;
     }
 
 }
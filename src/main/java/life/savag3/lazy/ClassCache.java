@@ -0,0 +1,218 @@
+package life.savag3.lazy;
+
+import lombok.Getter;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Stream;
+
+/**
+ * Content addressed, on-disk cache of stripped classes. Classes are keyed by a hash of their original bytes
+ * plus the fingerprint of the config used to strip them, so a class is only transformed again once either changes.
+ * Safe to use from many worker threads (and many Lazy processes) at once, entries are written to a temporary file
+ * and then atomically moved into place.
+ *
+ * @author Jacob C (Savag3life)
+ * @since 2026-10-18
+ */
+public final class ClassCache {
+
+    private static final double EVICT_TARGET = 0.9; // Trimmed below the limit while running, so the next put doesn't trim again
+    private static final ThreadLocal<MessageDigest> DIGEST = ThreadLocal.withInitial(ClassCache::sha256);
+
+    private final Path directory;
+    private final long maxBytes;
+    private final byte[] fingerprint;
+
+    private final AtomicLong size = new AtomicLong();
+    private final Set<String> writing = ConcurrentHashMap.newKeySet(); // Keys being written by a worker of this process
+    private final AtomicBoolean evicting = new AtomicBoolean(); // Stops workers over the limit all listing the cache at once
+    @Getter private final LongAdder hits = new LongAdder();
+    @Getter private final LongAdder misses = new LongAdder();
+
+    private ClassCache(Path directory, long maxBytes, byte[] fingerprint) {
+        this.directory = directory;
+        this.maxBytes = maxBytes;
+        this.fingerprint = fingerprint;
+    }
+
+    /**
+     * Open (or create) the cache directory.
+     *
+     * @param directory The directory to store cached classes in
+     * @param maxBytes The size the cache is trimmed down to once it grows past it & when closed
+     * @param fingerprint The fingerprint of the config used for this run
+     * @return The opened cache
+     * @throws IOException If the cache directory couldn't be created or read
+     */
+    public static ClassCache open(Path directory, long maxBytes, String fingerprint) throws IOException {
+        Files.createDirectories(directory);
+        ClassCache cache = new ClassCache(directory, maxBytes, sha256().digest(fingerprint.getBytes(StandardCharsets.UTF_8)));
+        try (Stream<Path> files = Files.walk(directory)) {
+            cache.size.set(files.filter(Files::isRegularFile).mapToLong(ClassCache::sizeOf).sum());
+        }
+        return cache;
+    }
+
+    /**
+     * Compute the cache key for the original bytes of a class.
+     *
+     * @param bytes The original class bytes
+     * @return The hex encoded key
+     */
+    public String key(byte[] bytes) {
+        MessageDigest digest = DIGEST.get();
+        digest.update(this.fingerprint);
+        return HexFormat.of().formatHex(digest.digest(bytes));
+    }
+
+    /**
+     * Look up a stripped class.
+     *
+     * @param key The key of the original class bytes
+     * @return The cached stripped class, or null on a cache miss
+     */
+    public byte[] get(String key) {
+        Path path = path(key);
+        try {
+            byte[] bytes = Files.readAllBytes(path);
+            // Entries are evicted least recently used first
+            Files.setLastModifiedTime(path, FileTime.fromMillis(System.currentTimeMillis()));
+            this.hits.increment();
+            return bytes;
+        } catch (NoSuchFileException e) {
+            this.misses.increment();
+            return null;
+        } catch (IOException e) {
+            Log.warn("Failed to read cached class: " + path + " (" + e.getMessage() + ")");
+            this.misses.increment();
+            return null;
+        }
+    }
+
+    /**
+     * Store a stripped class. Failures are reported but never fatal, the class is just transformed again next run.
+     * Entries are content addressed, so a key which is already stored (or being stored by another worker) is skipped.
+     * Once the cache grows past its maximum size it's trimmed, so long running sessions stay within the limit.
+     *
+     * @param key The key of the original class bytes
+     * @param bytes The stripped class bytes
+     */
+    public void put(String key, byte[] bytes) {
+        Path path = path(key);
+        if (!this.writing.add(key)) return;
+        Path temp = null;
+        try {
+            if (Files.exists(path)) return;
+            Files.createDirectories(path.getParent());
+            temp = Files.createTempFile(path.getParent(), key, ".tmp");
+            Files.write(temp, bytes);
+            Files.move(temp, path, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            if (this.size.addAndGet(bytes.length) > this.maxBytes) evict(EVICT_TARGET);
+        } catch (IOException e) {
+            Log.warn("Failed to write cached class: " + path + " (" + e.getMessage() + ")");
+            try {
+                if (temp != null) Files.deleteIfExists(temp);
+            } catch (IOException ignored) {}
+        } finally {
+            this.writing.remove(key);
+        }
+    }
+
+    /**
+     * Trim the cache down to its maximum size, removing the least recently used entries first.
+     */
+    public void evict() {
+        evict(1);
+    }
+
+    /**
+     * Trim the cache once it's over its maximum size. Only one thread trims at a time, others carry on.
+     *
+     * @param target The fraction of the maximum size to trim down to
+     */
+    private void evict(double target) {
+        if (this.size.get() <= this.maxBytes || !this.evicting.compareAndSet(false, true)) return;
+        try {
+            trim((long) (this.maxBytes * target));
+        } finally {
+            this.evicting.set(false);
+        }
+    }
+
+    private void trim(long maxBytes) {
+        List<Path> files = new ArrayList<>();
+        try (Stream<Path> walk = Files.walk(this.directory)) {
+            // Temporary files still being written by workers are left alone
+            walk.filter(file -> Files.isRegularFile(file) && file.getFileName().toString().endsWith(".class")).forEach(files::add);
+        } catch (IOException e) {
+            Log.warn("Failed to list class cache: " + this.directory + " (" + e.getMessage() + ")");
+            return;
+        }
+
+        List<CachedFile> cached = new ArrayList<>(files.size());
+        long total = 0;
+        for (Path file : files) {
+            try {
+                BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+                cached.add(new CachedFile(file, attributes.size(), attributes.lastModifiedTime().toMillis()));
+                total += attributes.size();
+            } catch (IOException ignored) {
+                // Removed by another process while listing
+            }
+        }
+
+        cached.sort(Comparator.comparingLong(CachedFile::lastModified));
+        int evicted = 0;
+        for (CachedFile file : cached) {
+            if (total <= maxBytes) break;
+            try {
+                Files.deleteIfExists(file.path());
+                total -= file.size();
+                evicted++;
+            } catch (IOException ignored) {}
+        }
+
+        this.size.set(total);
+        Log.debug("Evicted " + evicted + " classes from the class cache (" + total + " bytes remaining)");
+    }
+
+    private Path path(String key) {
+        return this.directory.resolve(key.substring(0, 2)).resolve(key.substring(2) + ".class");
+    }
+
+    private static long sizeOf(Path path) {
+        try {
+            return Files.size(path);
+        } catch (IOException e) {
+            return 0;
+        }
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    private record CachedFile(Path path, long size, long lastModified) {}
+}
@@ -0,0 +1,218 @@
+package life.savag3.lazy;
+
+import org.objectweb.asm.AnnotationVisitor;
+import org.objectweb.asm.ClassVisitor;
+import org.objectweb.asm.FieldVisitor;
+import org.objectweb.asm.MethodVisitor;
+import org.objectweb.asm.Opcodes;
+import org.objectweb.asm.RecordComponentVisitor;
+import org.objectweb.asm.TypePath;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Optional last stage of stripping, dropping what only served the removed code. Each stripped class is read again
+ * through the compactor into a fresh {@link org.objectweb.asm.ClassWriter}, which builds a new constant pool from what
+ * it's given, so anything dropped here also leaves the constant pool. See {@link LazyClassTransformer#compact(byte[])}.
+ * <ul>
+ *     <li>`SourceFile` & `SourceDebugExtension`, there are no line numbers left to map</li>
+ *     <li>`NestHost` & `NestMembers`, which only grant private access between the code of nestmates</li>
+ *     <li>Synthetic fields & methods (lambda bodies, accessors, `this$0`, `$VALUES`), bridge methods are kept</li>
+ *     <li>`InnerClasses` entries for classes no longer named by the class, such as anonymous classes & types only used by code</li>
+ * </ul>
+ * Member classes of the class & entries for nested classes still named by the class are kept, as compilers need them
+ * to resolve nested types. `BootstrapMethods` of removed lambdas are never written, as stripped methods have no code.
+ *
+ * @author Jacob C (Savag3life)
+ * @since 2026-10-18
+ */
+public class ClassCompactor extends ClassVisitor {
+
+    private final ClassReferences references = new ClassReferences(); // Classes named by what was written
+    private final List<InnerClass> innerClasses = new ArrayList<>(); // Held back until every reference is known
+    private String name;
+
+    public ClassCompactor(ClassVisitor next) {
+        super(Opcodes.ASM9, next);
+    }
+
+    /**
+     * Check if a class has anything the compactor would drop, from its class level attribute names.
+     *
+     * @param attribute The attribute name
+     * @return True if the compactor removes or rewrites the attribute
+     */
+    static boolean isCompacted(String attribute) {
+        return switch (attribute) {
+            case "SourceFile", "SourceDebugExtension", "NestHost", "NestMembers", "InnerClasses", "BootstrapMethods" -> true;
+            default -> false;
+        };
+    }
+
+    /**
+     * Check if a member is dropped by the compactor.
+     *
+     * Only members other classes can't compile against are dropped (lambda bodies, accessors, outer instance fields & enum
+     * value arrays), public & protected synthetic members such as Kotlin's `$default` methods are part of the API.
+     *
+     * @param access The access flags of the field or method
+     * @return True if the member is synthetic, neither public nor protected & not a bridge method
+     */
+    static boolean isDropped(int access) {
+        return (access & Opcodes.ACC_SYNTHETIC) != 0 && (access & (Opcodes.ACC_BRIDGE | Opcodes.ACC_PUBLIC | Opcodes.ACC_PROTECTED)) == 0;
+    }
+
+    @Override
+    public void visit(int version, int access, String name, String signature, String superName, String[] interfaces) {
+        this.name = name;
+        if (superName != null) this.references.add(superName);
+        this.references.addAll(interfaces);
+        this.references.addSignature(signature);
+        super.visit(version, access, name, signature, superName, interfaces);
+    }
+
+    @Override
+    public void visitSource(String source, String debug) {}
+
+    @Override
+    public void visitNestHost(String nestHost) {}
+
+    @Override
+    public void visitNestMember(String nestMember) {}
+
+    @Override
+    public void visitOuterClass(String owner, String name, String descriptor) {
+        this.references.add(owner);
+        if (descriptor != null) this.references.addDescriptor(descriptor);
+        super.visitOuterClass(owner, name, descriptor);
+    }
+
+    @Override
+    public void visitPermittedSubclass(String permittedSubclass) {
+        this.references.add(permittedSubclass);
+        super.visitPermittedSubclass(permittedSubclass);
+    }
+
+    @Override
+    public void visitInnerClass(String name, String outerName, String innerName, int access) {
+        this.innerClasses.add(new InnerClass(name, outerName, innerName, access));
+    }
+
+    @Override
+    public AnnotationVisitor visitAnnotation(String descriptor, boolean visible) {
+        this.references.addDescriptor(descriptor);
+        return this.references.collect(super.visitAnnotation(descriptor, visible));
+    }
+
+    @Override
+    public AnnotationVisitor visitTypeAnnotation(int typeRef, TypePath typePath, String descriptor, boolean visible) {
+        this.references.addDescriptor(descriptor);
+        return this.references.collect(super.visitTypeAnnotation(typeRef, typePath, descriptor, visible));
+    }
+
+    @Override
+    public RecordComponentVisitor visitRecordComponent(String name, String descriptor, String signature) {
+        this.references.addDescriptor(descriptor);
+        this.references.addSignature(signature);
+        RecordComponentVisitor next = super.visitRecordComponent(name, descriptor, signature);
+        return new RecordComponentVisitor(Opcodes.ASM9, next) {
+            @Override
+            public AnnotationVisitor visitAnnotation(String descriptor, boolean visible) {
+                references.addDescriptor(descriptor);
+                return references.collect(super.visitAnnotation(descriptor, visible));
+            }
+
+            @Override
+            public AnnotationVisitor visitTypeAnnotation(int typeRef, TypePath typePath, String descriptor, boolean visible) {
+                references.addDescriptor(descriptor);
+                return references.collect(super.visitTypeAnnotation(typeRef, typePath, descriptor, visible));
+            }
+        };
+    }
+
+    @Override
+    public FieldVisitor visitField(int access, String name, String descriptor, String signature, Object value) {
+        if (isDropped(access)) return null;
+        this.references.addDescriptor(descriptor);
+        this.references.addSignature(signature);
+        FieldVisitor next = super.visitField(access, name, descriptor, signature, value);
+        return new FieldVisitor(Opcodes.ASM9, next) {
+            @Override
+            public AnnotationVisitor visitAnnotation(String descriptor, boolean visible) {
+                references.addDescriptor(descriptor);
+                return references.collect(super.visitAnnotation(descriptor, visible));
+            }
+
+            @Override
+            public AnnotationVisitor visitTypeAnnotation(int typeRef, TypePath typePath, String descriptor, boolean visible) {
+                references.addDescriptor(descriptor);
+                return references.collect(super.visitTypeAnnotation(typeRef, typePath, descriptor, visible));
+            }
+        };
+    }
+
+    @Override
+    public MethodVisitor visitMethod(int access, String name, String descriptor, String signature, String[] exceptions) {
+        if (isDropped(access)) return null;
+        this.references.addDescriptor(descriptor);
+        this.references.addSignature(signature);
+        this.references.addAll(exceptions);
+        MethodVisitor next = super.visitMethod(access, name, descriptor, signature, exceptions);
+        return new MethodVisitor(Opcodes.ASM9, next) {
+            @Override
+            public AnnotationVisitor visitAnnotationDefault() {
+                return references.collect(super.visitAnnotationDefault());
+            }
+
+            @Override
+            public AnnotationVisitor visitAnnotation(String descriptor, boolean visible) {
+                references.addDescriptor(descriptor);
+                return references.collect(super.visitAnnotation(descriptor, visible));
+            }
+
+            @Override
+            public AnnotationVisitor visitParameterAnnotation(int parameter, String descriptor, boolean visible) {
+                references.addDescriptor(descriptor);
+                return references.collect(super.visitParameterAnnotation(parameter, descriptor, visible));
+            }
+
+            @Override
+            public AnnotationVisitor visitTypeAnnotation(int typeRef, TypePath typePath, String descriptor, boolean visible) {
+                references.addDescriptor(descriptor);
+                return references.collect(super.visitTypeAnnotation(typeRef, typePath, descriptor, visible));
+            }
+        };
+    }
+
+    @Override
+    public void visitEnd() {
+        // The class itself, its member classes, and nested classes it still names. A kept entry names its outer class,
+        // which needs its own entry when it's nested too
+        Set<InnerClass> kept = new HashSet<>();
+        boolean added = true;
+        while (added) {
+            added = false;
+            for (InnerClass inner : this.innerClasses) {
+                if (kept.contains(inner)) continue;
+                if (inner.name().equals(this.name) || this.name.equals(inner.outerName()) || this.references.contains(inner.name())) {
+                    kept.add(inner);
+                    if (inner.outerName() != null) this.references.add(inner.outerName());
+                    added = true;
+                }
+            }
+        }
+
+        for (InnerClass inner : this.innerClasses) {
+            if (kept.contains(inner)) super.visitInnerClass(inner.name(), inner.outerName(), inner.innerName(), inner.access());
+        }
+        super.visitEnd();
+    }
+
+    /**
+     * An `InnerClasses` entry, held back until the end of the class.
+     */
+    private record InnerClass(String name, String outerName, String innerName, int access) {}
+}
@@ -0,0 +1,182 @@
+package life.savag3.lazy;
+
+import lombok.experimental.UtilityClass;
+import org.objectweb.asm.Opcodes;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Lightweight scan of a class file which decides whether stripping would change the class at all, without building
+ * anything with ASM. Only the constant pool offsets, access flags & member tables are read. Interfaces without default
+ * methods, annotations & classes of only abstract methods have no code to remove, and their bytes can be copied through as-is.
+ * <p>
+ * With COMPACT_CLASSES enabled, classes with synthetic members or class attributes dropped by the
+ * {@link ClassCompactor} are stripped too.
+ * <p>
+ * The scan is conservative, any class it isn't sure about (including malformed classes) is reported as needing stripping.
+ *
+ * @author Jacob C (Savag3life)
+ * @since 2026-10-18
+ */
+@UtilityClass
+public final class ClassPreScan {
+
+    private static final byte[] CODE = "Code".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] VISIBLE_ANNOTATIONS = "RuntimeVisibleAnnotations".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] INVISIBLE_ANNOTATIONS = "RuntimeInvisibleAnnotations".getBytes(StandardCharsets.US_ASCII);
+
+    // Attribute flags of a single member
+    private static final int HAS_CODE = 1;
+    private static final int HAS_VISIBLE_ANNOTATIONS = 2;
+    private static final int HAS_INVISIBLE_ANNOTATIONS = 4;
+    // Members are only ever removed when they carry both kinds of annotations, see LazyClassTransformer#checkAnnotations
+    private static final int HAS_BOTH_ANNOTATIONS = HAS_VISIBLE_ANNOTATIONS | HAS_INVISIBLE_ANNOTATIONS;
+
+    /**
+     * Check if stripping a class with the given config could change it.
+     *
+     * @param bytes The class file bytes
+     * @param config The config of the run
+     * @return False if the class would be written unchanged, true if it needs to be stripped (or couldn't be scanned)
+     */
+    public static boolean needsStripping(byte[] bytes, LazyConfig config) {
+        try {
+            return scan(bytes, config);
+        } catch (IndexOutOfBoundsException e) {
+            // Truncated or malformed, leave it to ASM to report
+            return true;
+        }
+    }
+
+    private static boolean scan(byte[] b, LazyConfig config) {
+        if (u4(b, 0) != 0xCAFEBABE) return true;
+
+        // Record where each constant pool entry starts, so attribute names can be compared in place
+        int count = u2(b, 8);
+        int[] entries = new int[count];
+        int offset = 10;
+        for (int x = 1; x < count; x++) {
+            entries[x] = offset;
+            switch (b[offset]) {
+                case 1 -> offset += 3 + u2(b, offset + 1); // Utf8
+                case 3, 4, 9, 10, 11, 12, 17, 18 -> offset += 5; // Integer, Float, Field/Method/InterfaceMethod refs, NameAndType, Dynamic, InvokeDynamic
+                case 5, 6 -> { // Long, Double take two entries
+                    offset += 9;
+                    x++;
+                }
+                case 7, 8, 16, 19, 20 -> offset += 3; // Class, String, MethodType, Module, Package
+                case 15 -> offset += 4; // MethodHandle
+                default -> {
+                    return true;
+                }
+            }
+        }
+
+        // Skip access, this & super, then the interfaces
+        offset += 6;
+        offset += 2 + 2 * u2(b, offset);
+
+        int fields = u2(b, offset);
+        offset += 2;
+        for (int x = 0; x < fields; x++) {
+            int access = u2(b, offset);
+            if (config.isCompactClasses() && ClassCompactor.isDropped(access)) return true;
+            int flags = attributeFlags(b, offset + 6, entries);
+            if ((flags & HAS_BOTH_ANNOTATIONS) == HAS_BOTH_ANNOTATIONS && !isFieldIncluded(access, config)) return true;
+            offset = skipMember(b, offset);
+        }
+
+        int methods = u2(b, offset);
+        offset += 2;
+        for (int x = 0; x < methods; x++) {
+            int access = u2(b, offset);
+            if (config.isCompactClasses() && ClassCompactor.isDropped(access)) return true;
+            int flags = attributeFlags(b, offset + 6, entries);
+            if ((flags & HAS_CODE) != 0) return true;
+            if ((flags & HAS_BOTH_ANNOTATIONS) == HAS_BOTH_ANNOTATIONS && !isMethodIncluded(access, config)) return true;
+            offset = skipMember(b, offset);
+        }
+
+        if (config.isCompactClasses()) {
+            int attributes = u2(b, offset);
+            offset += 2;
+            for (int x = 0; x < attributes; x++) {
+                int name = entries[u2(b, offset)];
+                if (b[name] != 1 || ClassCompactor.isCompacted(new String(b, name + 3, u2(b, name + 1), StandardCharsets.UTF_8))) return true;
+                offset += 6 + u4(b, offset + 2);
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Mirrors the access checks of {@link LazyClassTransformer#isFieldRemoved}, ignoring annotations.
+     */
+    private static boolean isFieldIncluded(int access, LazyConfig config) {
+        boolean isStatic = (access & Opcodes.ACC_STATIC) != 0;
+        if ((access & Opcodes.ACC_PUBLIC) != 0) return isStatic ? config.isIncludePubStaticFields() : config.isIncludePubNonStaticFields();
+        if ((access & Opcodes.ACC_PRIVATE) != 0) return isStatic ? config.isIncludePriStaticFields() : config.isIncludePriNonStaticFields();
+        return true;
+    }
+
+    /**
+     * Mirrors the access checks of {@link LazyClassTransformer#isMethodRemoved}, ignoring annotations.
+     */
+    private static boolean isMethodIncluded(int access, LazyConfig config) {
+        if (!config.isIncludePrivateMethods() && (access & Opcodes.ACC_PRIVATE) != 0) return false;
+        return config.isIncludeNativeMethods() || (access & Opcodes.ACC_NATIVE) == 0;
+    }
+
+    /**
+     * Read the attribute table of a member.
+     *
+     * @param offset Offset of the member's attribute count
+     * @return The HAS_* flags of the member
+     */
+    private static int attributeFlags(byte[] b, int offset, int[] entries) {
+        int flags = 0;
+        int attributes = u2(b, offset);
+        offset += 2;
+        for (int x = 0; x < attributes; x++) {
+            int name = entries[u2(b, offset)];
+            if (utf8Equals(b, name, CODE)) {
+                flags |= HAS_CODE;
+            } else if (utf8Equals(b, name, VISIBLE_ANNOTATIONS)) {
+                flags |= HAS_VISIBLE_ANNOTATIONS;
+            } else if (utf8Equals(b, name, INVISIBLE_ANNOTATIONS)) {
+                flags |= HAS_INVISIBLE_ANNOTATIONS;
+            }
+            offset += 6 + u4(b, offset + 2);
+        }
+        return flags;
+    }
+
+    /**
+     * Skip over a field or method.
+     *
+     * @param offset Offset of the member's access flags
+     * @return Offset of the next member
+     */
+    private static int skipMember(byte[] b, int offset) {
+        int attributes = u2(b, offset + 6);
+        offset += 8;
+        for (int x = 0; x < attributes; x++) offset += 6 + u4(b, offset + 2);
+        return offset;
+    }
+
+    private static boolean utf8Equals(byte[] b, int entry, byte[] expected) {
+        if (b[entry] != 1 || u2(b, entry + 1) != expected.length) return false;
+        for (int x = 0; x < expected.length; x++) {
+            if (b[entry + 3 + x] != expected[x]) return false;
+        }
+        return true;
+    }
+
+    private static int u2(byte[] b, int offset) {
+        return ((b[offset] & 0xFF) << 8) | (b[offset + 1] & 0xFF);
+    }
+
+    private static int u4(byte[] b, int offset) {
+        return ((b[offset] & 0xFF) << 24) | ((b[offset + 1] & 0xFF) << 16) | ((b[offset + 2] & 0xFF) << 8) | (b[offset + 3] & 0xFF);
+    }
+}
@@ -0,0 +1,155 @@
+package life.savag3.lazy;
+
+import org.objectweb.asm.AnnotationVisitor;
+import org.objectweb.asm.Opcodes;
+import org.objectweb.asm.Type;
+import org.objectweb.asm.signature.SignatureReader;
+import org.objectweb.asm.signature.SignatureVisitor;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Classes named by a class file, collected from the descriptors, generic signatures & annotations handed to it while
+ * the class is visited. Used by {@link ApiReachability} to build the reference graph of a jar & by {@link ClassCompactor}
+ * to find the `InnerClasses` entries a stripped class still needs. Not thread safe, one is used per class.
+ *
+ * @author Jacob C (Savag3life)
+ * @since 2026-10-18
+ */
+final class ClassReferences {
+
+    private final Set<String> names = new HashSet<>(); // Internal names of every class named so far
+    private final AnnotationVisitor collector = new Collector(null); // Shared by annotations which aren't forwarded
+
+    /**
+     * @return The internal names of every class named so far, changes to the set are seen by the collector
+     */
+    Set<String> names() {
+        return this.names;
+    }
+
+    boolean contains(String name) {
+        return this.names.contains(name);
+    }
+
+    /**
+     * @param name The internal name of a class `life/savag3/lazy/Lazy`
+     */
+    void add(String name) {
+        this.names.add(name);
+    }
+
+    /**
+     * @param names Internal names of classes, or null
+     */
+    void addAll(String[] names) {
+        if (names == null) return;
+        for (String name : names) this.names.add(name);
+    }
+
+    /**
+     * @param descriptor A field or method descriptor `Llife/savag3/lazy/Lazy;`
+     */
+    void addDescriptor(String descriptor) {
+        addType(Type.getType(descriptor));
+    }
+
+    void addType(Type type) {
+        switch (type.getSort()) {
+            case Type.ARRAY -> addType(type.getElementType());
+            case Type.OBJECT -> this.names.add(type.getInternalName());
+            case Type.METHOD -> {
+                for (Type argument : type.getArgumentTypes()) addType(argument);
+                addType(type.getReturnType());
+            }
+            default -> {}
+        }
+    }
+
+    /**
+     * @param signature A class, field or method generic signature, or null
+     */
+    void addSignature(String signature) {
+        if (signature == null) return;
+        new SignatureReader(signature).accept(new SignatureVisitor(Opcodes.ASM9) {
+            // Class types being visited, type arguments are visited before the inner classes named relative to them
+            private final Deque<String> classTypes = new ArrayDeque<>();
+
+            @Override
+            public void visitClassType(String name) {
+                this.classTypes.push(name);
+                names.add(name);
+            }
+
+            @Override
+            public void visitInnerClassType(String name) {
+                String inner = this.classTypes.pop() + "$" + name;
+                this.classTypes.push(inner);
+                names.add(inner);
+            }
+
+            @Override
+            public void visitEnd() {
+                this.classTypes.pop();
+            }
+        });
+    }
+
+    /**
+     * Record an annotation & the classes named by its values, without forwarding it anywhere.
+     *
+     * @param descriptor The annotation descriptor
+     * @return The visitor of the annotation values
+     */
+    AnnotationVisitor annotation(String descriptor) {
+        addDescriptor(descriptor);
+        return this.collector;
+    }
+
+    /**
+     * Record the classes named by the values of an annotation as they're forwarded. The annotation descriptor itself
+     * isn't recorded, see {@link #annotation(String)}.
+     *
+     * @param next The visitor to forward the values to, or null
+     * @return The visitor of the annotation values
+     */
+    AnnotationVisitor collect(AnnotationVisitor next) {
+        return next == null ? this.collector : new Collector(next);
+    }
+
+    /**
+     * Records class literals, enum types & nested annotations of annotation values.
+     */
+    private final class Collector extends AnnotationVisitor {
+
+        private Collector(AnnotationVisitor next) {
+            super(Opcodes.ASM9, next);
+        }
+
+        @Override
+        public void visit(String name, Object value) {
+            if (value instanceof Type type) addType(type);
+            super.visit(name, value);
+        }
+
+        @Override
+        public void visitEnum(String name, String descriptor, String value) {
+            addDescriptor(descriptor);
+            super.visitEnum(name, descriptor, value);
+        }
+
+        @Override
+        public AnnotationVisitor visitAnnotation(String name, String descriptor) {
+            addDescriptor(descriptor);
+            return collect(super.visitAnnotation(name, descriptor));
+        }
+
+        @Override
+        public AnnotationVisitor visitArray(String name) {
+            return collect(super.visitArray(name));
+        }
+    }
+}
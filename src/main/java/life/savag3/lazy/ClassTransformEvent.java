@@ -0,0 +1,35 @@
+package life.savag3.lazy;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * JFR event emitted for every class stripped, so slow classes can be found with standard JDK tooling.
+ * Only recorded while a flight recording with the event enabled is running.
+ *
+ * @author Jacob C (Savag3life)
+ * @since 2026-10-18
+ */
+@Name("life.savag3.lazy.ClassTransform")
+@Label("Class Transform")
+@Category("Lazy")
+@Description("A single class stripped by Lazy")
+@StackTrace(false)
+public class ClassTransformEvent extends Event {
+
+    @Label("Class")
+    public String className;
+
+    @Label("Original Size")
+    @DataAmount
+    public int bytesIn;
+
+    @Label("Stripped Size")
+    @DataAmount
+    public int bytesOut;
+}
@@ -1,31 +1,33 @@
 package life.savag3.lazy;
 
-import java.io.File;
-import java.io.IOException;
-import java.nio.file.Files;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Configuration class used to store the configuration for Lazy
  * This class is serialized to JSON and saved to the output jar as `config.json`
+ * <p>
+ * These are the options used by the command line & the defaults of every other config. Strippers read an immutable
+ * {@link LazyConfig} snapshot taken when they're opened, so changing an option here doesn't affect strippers already open.
  *
  * @author Jacob C (Savag3life)
  * @since 2023-09-04
  */
 public class Config {
 
-    public static transient Config instance = new Config();
-
     // Packages exempt from being stripped by Lazy (Essentially Skipping & adding to output jar)
     // Format: package0/package1/package2/* - Exempt anything inside this package
     // Format: package0/*/package2 - Exempt anything with the root path `package0` and a sub package `package2`
+    // Format: package0/package1/Example.class - Exempt exactly this class
     public static List<String> EXEMPT = new ArrayList<>();
 
     // Packages to be excluded from the output (These packages / classes are not included in the output jar)
     // Format: package0/package1/package2/* - Exclude anything inside this package
     // Format: package0/*/package2 - Exclude anything with the root path `package0` and a sub package `package2`
+    // Format: package0/package1/Example.class - Exclude exactly this class
     public static List<String> EXCLUDE = new ArrayList<>();
 
     // Should Lazy include fields marked as `public static`
@@ -38,6 +40,10 @@ public class Config {
     // Should Lazy include fields marked as non-static `private`
     public static boolean INCLUDE_PRI_NON_STATIC_FIELDS = true;
 
+    // Should Lazy copy non-class entries (resources, service files, native libraries) to the output jar
+    // These are copied as-is without being recompressed, the same as exempt classes.
+    public static boolean INCLUDE_RESOURCES = true;
+
     // Should Lazy include emptied methods which are marked as `private`
     public static boolean INCLUDE_PRIVATE_METHODS = false;
     // Should Lazy include emptied methods which are marked as `native`
@@ -53,8 +59,84 @@ public class Config {
 
     public static boolean DO_JETBRAINS_CONTRACTS = true;
 
-    // Should Lazy print verbose output to the console
-    public static boolean VERBOSE = true;
+    // Engine used to strip classes. `VISITOR` streams each class & never reads method code,
+    // `TREE` builds the full class tree (including code) before stripping it.
+    public static LazyClassTransformer.Engine ENGINE = LazyClassTransformer.Engine.VISITOR;
+
+    // Should Lazy print verbose output to the console, raises LOG_LEVEL to at least `DEBUG`
+    public static boolean VERBOSE = false;
+    // Minimum level of messages printed to the console. `TRACE` lists every class & entry as it's processed,
+    // `DEBUG` adds stack traces of skipped classes & the slowest classes of each jar.
+    public static Log.Level LOG_LEVEL = Log.Level.INFO;
+
+    // Number of worker threads used to read & strip classes in parallel
+    // Any value <= 0 uses one worker per available processor.
+    public static int THREADS = 0;
+
+    // Should Lazy write classes to the output jar as soon as they're processed, in input order,
+    // rather than holding every class in memory until the whole jar has been processed
+    public static boolean STREAM_OUTPUT = true;
+    // Maximum number of classes being processed ahead of the writer at once
+    // Any value <= 0 allows 8 classes per worker thread.
+    public static int IN_FLIGHT_CLASSES = 0;
+    // Maximum number of jars stripped at once in batch mode, jars share the worker threads
+    // Any value <= 0 allows half as many jars as worker threads, at least 2.
+    public static int BATCH_CONCURRENT_JARS = 0;
+
+    // Should Lazy strip jars nested inside the input jar (`BOOT-INF/lib/*.jar`, `META-INF/jars/*.jar`), in memory.
+    // Nested jars are written back uncompressed, as fat jar launchers expect. EXEMPT & EXCLUDE patterns match
+    // entries of nested jars by their own name or by their full path, `BOOT-INF/lib/example.jar!/package0/*`.
+    public static boolean STRIP_NESTED_JARS = false;
+
+    // Should Lazy leave out classes which can't be reached from the public API of the jar. Public classes, exempt classes
+    // & service providers are kept, along with every class named by their supertypes, annotations & public or protected
+    // member signatures. Package-private helpers only used inside method bodies are removed.
+    public static boolean PRUNE_UNREACHABLE = false;
+    // File to write the classes pruned from each jar to after each run. Leave empty to skip the report.
+    public static String PRUNE_REPORT = "";
+
+    // Compression of entries written to the output jar. `STORED` skips compression entirely, which is fastest
+    // for jars only used locally or as an intermediate step, `DEFLATED` uses COMPRESSION_LEVEL.
+    // Entries copied as-is from the input jar keep their original compression.
+    public static JarWriter.Compression OUTPUT_COMPRESSION = JarWriter.Compression.DEFLATED;
+    // Deflate level of written entries, from 0 (no compression) to 9 (smallest). -1 uses the default level (6).
+    public static int COMPRESSION_LEVEL = -1;
+
+    // Should Lazy drop what only served the removed code from stripped classes: `SourceFile` & `SourceDebugExtension`,
+    // `NestHost` & `NestMembers`, synthetic members (lambda bodies, accessors) & `InnerClasses` entries for classes
+    // no longer named by the class. The constant pool shrinks with them. Bridge methods & member classes are kept.
+    public static boolean COMPACT_CLASSES = false;
+
+    // Should Lazy write identical output jars for identical input jars. Entries are written sorted by name
+    // (after the manifest) & stamped with a fixed timestamp, rather than in input order with the current time.
+    public static boolean REPRODUCIBLE_OUTPUT = true;
+    // Should Lazy leave an existing output jar untouched when the new output is byte for byte identical,
+    // so tools watching the output (build caches, uploads) don't see a change. The output is written to a
+    // temporary file first & only moved over the existing output when it differs. When writing to a directory,
+    // each file which already holds the same content is left untouched.
+    public static boolean SKIP_UNCHANGED_OUTPUT = false;
+    // Should Lazy write an index of the API of the output next to it, `<output>.api`. Every class is listed with a hash of
+    // its public & protected surface (signatures, annotations & constants), along with a digest of the whole output.
+    // Build tools can compare the digest to skip recompiling downstream modules when only implementation details changed.
+    public static boolean API_INDEX = false;
+
+    // Directory used to cache stripped classes between runs, classes which haven't changed
+    // since a previous run (with the same config) are copied from the cache instead of being stripped again.
+    // Leave empty to disable the cache.
+    public static String CACHE_DIRECTORY = "";
+    // Maximum size of the class cache in megabytes, least recently used classes are evicted first
+    public static long CACHE_MAX_SIZE_MB = 512;
+
+    // File to write a JSON report of per-phase timings, transform latencies & sizes to after each run.
+    // Leave empty to skip the report.
+    public static String METRICS_REPORT = "";
+    // Number of slowest classes listed after each jar & in the metrics report
+    public static int METRICS_SLOWEST_CLASSES = 10;
+
+    // Watch mode waits until the input has been quiet for this long before stripping a burst of changes
+    public static long WATCH_DEBOUNCE_MILLIS = 100;
+    // How often watch mode checks an input jar for changes. Class directories are watched for events instead.
+    public static long WATCH_POLL_MILLIS = 250;
 
     static {
         EXCLUDE.add("org/reflections/*");
@@ -63,35 +145,7 @@ public class Config {
         EXEMPT.add("org/spongepowered/*");
     }
 
-    public static void load(Lazy lazy, String path) {
-        try {
-            File file = new File(path);
-            if (!file.exists()) {
-
-                System.out.println("Failed to load config file: " + path);
-                System.out.println("Using & writing default config file.");
-                file.createNewFile();
-                Files.writeString(file.toPath(), lazy.getGson().toJson(instance));
-
-            } else {
-
-                String content = Files.readString(new File(path).toPath());
-                if (content == null || content.isEmpty()) {
-                    System.out.println("Found config but it was empty: " + path);
-                    System.out.println("Overwriting with default config.");
-                    Files.writeString(file.toPath(), lazy.getGson().toJson(instance));
-                    return;
-                }
-
-                instance = lazy.getGson().fromJson(content, Config.class);
-            }
-        } catch (IOException er) {
-            System.out.println("Failed to load config file: " + path);
-            er.printStackTrace();
-        }
-    }
-
-    public static void load(Lazy lazy) {
-        load(lazy, "config.json");
-    }
+    // Default value of every option, taken before any config file is loaded. See LazyConfig#load
+    // Transient, so it's never written to or read from a config file along with the options
+    static final transient Map<String, Object> DEFAULTS = Collections.unmodifiableMap(LazyConfig.snapshot());
 }
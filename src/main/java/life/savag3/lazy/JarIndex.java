@@ -0,0 +1,421 @@
+package life.savag3.lazy;
+
+import lombok.Getter;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.io.UncheckedIOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+import java.util.zip.CRC32;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipException;
+
+/**
+ * Index of the entries inside a jar, read straight from the zip central directory. Knowing where the
+ * compressed data of each entry lives lets Lazy copy entries into the output jar without inflating & re-deflating them.
+ * <p>
+ * The jar is memory-mapped, so entries are read from slices of the mapped file without locking & can be
+ * read by many worker threads at once. Each thread inflates using its own reusable {@link Inflater}.
+ * <p>
+ * An index can also be built from an exploded jar (a directory of classes such as `target/classes`), in which case
+ * every file is an entry named by its path relative to the directory & read straight from disk.
+ *
+ * @author Jacob C (Savag3life)
+ * @since 2026-10-18
+ */
+public final class JarIndex implements Closeable {
+
+    static final int LOC_SIG = 0x04034b50;
+    static final int CEN_SIG = 0x02014b50;
+    static final int END_SIG = 0x06054b50;
+    static final int ZIP64_END_SIG = 0x06064b50;
+    static final int ZIP64_LOC_SIG = 0x07064b50;
+    static final int ZIP64_EXTRA = 0x0001;
+    static final long ZIP64_MAGIC = 0xFFFFFFFFL;
+    static final int FLAG_ENCRYPTED = 0x1;
+
+    private static final int LOC_HEADER = 30;
+    private static final int CEN_HEADER = 46;
+    private static final int END_HEADER = 22;
+
+    // Files are mapped in segments, overlapping so entries smaller than the overlap never straddle two segments
+    private static final long SEGMENT_SIZE = 1L << 30;
+    private static final long SEGMENT_OVERLAP = 64L << 20;
+
+    private static final ThreadLocal<Inflater> INFLATER = ThreadLocal.withInitial(() -> new Inflater(true));
+    private static final ThreadLocal<CRC32> CRC = ThreadLocal.withInitial(CRC32::new);
+
+    @Getter private List<Entry> entries;
+    private final FileChannel channel; // null when the index was built from a JarFile or a directory
+    private final MappedByteBuffer[] segments;
+    private final Path directory; // Root of the exploded jar, null when the index was built from a jar
+
+    private JarIndex(FileChannel channel, MappedByteBuffer[] segments, Path directory) {
+        this.channel = channel;
+        this.segments = segments;
+        this.directory = directory;
+    }
+
+    /**
+     * Read the central directory of the given jar.
+     *
+     * @param file The jar file to index
+     * @return The index of the jar's entries, in central directory order
+     * @throws IOException If the jar couldn't be read or isn't a valid zip archive
+     */
+    public static JarIndex open(File file) throws IOException {
+        FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+        try {
+            long size = channel.size();
+            MappedByteBuffer[] segments = new MappedByteBuffer[(int) Math.max(1, (size + SEGMENT_SIZE - 1) / SEGMENT_SIZE)];
+            for (int x = 0; x < segments.length; x++) {
+                long start = x * SEGMENT_SIZE;
+                segments[x] = channel.map(FileChannel.MapMode.READ_ONLY, start, Math.min(SEGMENT_SIZE + SEGMENT_OVERLAP, size - start));
+            }
+
+            JarIndex index = new JarIndex(channel, segments, null);
+            index.entries = Collections.unmodifiableList(index.readCentralDirectory(size));
+            return index;
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Build an index from an already opened JarFile. Entries in this index can't be copied raw.
+     *
+     * @param jarFile The opened jar
+     * @return The index of the jar's entries
+     */
+    public static JarIndex of(JarFile jarFile) {
+        List<Entry> entries = new ArrayList<>();
+        for (Enumeration<JarEntry> list = jarFile.entries(); list.hasMoreElements(); ) {
+            JarEntry entry = list.nextElement();
+            entries.add(new Entry(entry.getName(), entry.getMethod(), 0, entry.getCrc(), entry.getCompressedSize(), entry.getSize(), 0, -1));
+        }
+
+        JarIndex index = new JarIndex(null, null, null);
+        index.entries = Collections.unmodifiableList(entries);
+        return index;
+    }
+
+    /**
+     * Build an index of an exploded jar. Sub directories are listed in parallel, entries are sorted by name.
+     * Entries in this index can't be copied raw.
+     *
+     * @param directory The root directory of the exploded jar
+     * @return The index of every file under the directory
+     * @throws IOException If the directory couldn't be listed
+     */
+    public static JarIndex of(Path directory) throws IOException {
+        Path root = directory.toAbsolutePath().normalize();
+        List<Entry> entries;
+        try {
+            entries = ForkJoinPool.commonPool().invoke(new DirectoryWalk(root, root));
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        entries.sort(Comparator.comparing(Entry::name));
+
+        JarIndex index = new JarIndex(null, null, root);
+        index.entries = Collections.unmodifiableList(entries);
+        return index;
+    }
+
+    /**
+     * Check if an entry can be read straight from the mapped jar. Entries which can't (such as
+     * exotic compression methods) need to be read through {@link JarFile} instead.
+     *
+     * @param entry The entry to check
+     * @return True if {@link #read(Entry)} supports the entry, false otherwise
+     */
+    public boolean canRead(Entry entry) {
+        if (this.directory != null) return true;
+        return this.segments != null && entry.isRaw() &&
+                (entry.method() == ZipEntry.STORED || entry.method() == ZipEntry.DEFLATED) &&
+                (entry.flags() & FLAG_ENCRYPTED) == 0 &&
+                entry.size() <= Integer.MAX_VALUE;
+    }
+
+    /**
+     * Read the uncompressed bytes of an entry. Safe to call from many threads at once.
+     *
+     * @param entry The entry to read, must be {@link #canRead(Entry) readable}
+     * @return The entry content
+     * @throws IOException If the entry data is corrupt
+     */
+    public byte[] read(Entry entry) throws IOException {
+        if (!canRead(entry)) throw new IllegalStateException("Entry can't be read from the mapped jar: " + entry.name());
+        if (this.directory != null) return Files.readAllBytes(this.directory.resolve(entry.name()));
+
+        ByteBuffer data = region(dataOffset(entry), entry.compressedSize());
+
+        byte[] bytes = new byte[(int) entry.size()];
+        if (entry.method() == ZipEntry.STORED) {
+            data.get(0, bytes);
+        } else {
+            Inflater inflater = INFLATER.get();
+            inflater.reset();
+            inflater.setInput(data);
+            try {
+                int length = 0;
+                while (length < bytes.length) {
+                    int read = inflater.inflate(bytes, length, bytes.length - length);
+                    if (read == 0 && (inflater.finished() || inflater.needsInput() || inflater.needsDictionary())) break;
+                    length += read;
+                }
+                if (length != bytes.length) throw new ZipException("Invalid entry size for entry: " + entry.name());
+            } catch (DataFormatException e) {
+                throw new ZipException("Invalid compressed data for entry: " + entry.name() + " (" + e.getMessage() + ")");
+            }
+        }
+
+        CRC32 crc = CRC.get();
+        crc.reset();
+        crc.update(bytes);
+        if (crc.getValue() != entry.crc()) throw new ZipException("Invalid CRC for entry: " + entry.name());
+        return bytes;
+    }
+
+    /**
+     * Copy the compressed bytes of an entry straight into the output jar.
+     *
+     * @param entry The entry to copy, must be {@link Entry#isRaw() raw}
+     * @param writer The output jar
+     */
+    public void transferTo(Entry entry, JarWriter writer) throws IOException {
+        if (!entry.isRaw() || this.channel == null) throw new IllegalStateException("Entry can't be copied raw: " + entry.name());
+        writer.copy(entry, this.channel, dataOffset(entry));
+    }
+
+    /**
+     * Find where the compressed data of an entry starts, just after its local header.
+     */
+    private long dataOffset(Entry entry) throws IOException {
+        ByteBuffer header = region(entry.localHeaderOffset(), LOC_HEADER);
+        if (header.getInt(0) != LOC_SIG) throw new ZipException("Invalid local header for entry: " + entry.name());
+        return entry.localHeaderOffset() + LOC_HEADER + (header.getShort(26) & 0xFFFF) + (header.getShort(28) & 0xFFFF);
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (this.channel != null) this.channel.close();
+    }
+
+    /**
+     * Get a view of a region of the jar. Regions inside a single mapped segment are slices of the mapping,
+     * regions straddling two segments are copied out with a positional read.
+     *
+     * @param offset The offset of the region in the jar
+     * @param length The length of the region
+     * @return A little-endian buffer holding the region, positioned at 0
+     */
+    private ByteBuffer region(long offset, long length) throws IOException {
+        if (offset < 0 || length < 0 || offset + length > this.channel.size()) throw new ZipException("Entry data is outside of the jar");
+        if (length > Integer.MAX_VALUE) throw new ZipException("Entry is too large to read");
+
+        int segment = (int) (offset / SEGMENT_SIZE);
+        long start = offset - segment * SEGMENT_SIZE;
+        MappedByteBuffer mapped = this.segments[segment];
+        if (start + length <= mapped.capacity()) {
+            return mapped.slice((int) start, (int) length).order(ByteOrder.LITTLE_ENDIAN);
+        }
+
+        ByteBuffer buffer = ByteBuffer.allocate((int) length).order(ByteOrder.LITTLE_ENDIAN);
+        readFully(this.channel, buffer, offset);
+        return buffer;
+    }
+
+    /**
+     * Locate & parse the central directory, following the zip64 end record where one is present.
+     */
+    private List<Entry> readCentralDirectory(long size) throws IOException {
+        if (size < END_HEADER) throw new ZipException("File is too small to be a zip archive");
+
+        // The end record sits at the end of the file, followed by a comment of up to 64k
+        int tailLength = (int) Math.min(size, END_HEADER + 0xFFFF);
+        ByteBuffer tail = region(size - tailLength, tailLength);
+
+        int end = -1;
+        for (int x = tailLength - END_HEADER; x >= 0; x--) {
+            if (tail.getInt(x) == END_SIG) {
+                end = x;
+                break;
+            }
+        }
+        if (end == -1) throw new ZipException("End of central directory not found");
+
+        long count = tail.getShort(end + 10) & 0xFFFF;
+        long cenSize = tail.getInt(end + 12) & ZIP64_MAGIC;
+        long cenOffset = tail.getInt(end + 16) & ZIP64_MAGIC;
+
+        long endPosition = size - tailLength + end;
+        if (endPosition >= 20) {
+            ByteBuffer locator = region(endPosition - 20, 20);
+            if (locator.getInt(0) == ZIP64_LOC_SIG) {
+                ByteBuffer end64 = region(locator.getLong(8), 56);
+                if (end64.getInt(0) != ZIP64_END_SIG) throw new ZipException("Invalid zip64 end of central directory");
+                count = end64.getLong(32);
+                cenSize = end64.getLong(40);
+                cenOffset = end64.getLong(48);
+            }
+        }
+
+        if (cenSize > Integer.MAX_VALUE || cenOffset + cenSize > size) throw new ZipException("Invalid central directory size");
+        return parseCentralDirectory(region(cenOffset, cenSize), count);
+    }
+
+    /**
+     * Parse the records of a central directory.
+     *
+     * @param cen The central directory, positioned at its first record
+     * @param count The number of records expected
+     * @return The parsed entries
+     */
+    static List<Entry> parseCentralDirectory(ByteBuffer cen, long count) throws ZipException {
+        List<Entry> entries = new ArrayList<>((int) Math.min(count, 1 << 16));
+        int pos = cen.position();
+        for (long x = 0; x < count; x++) {
+            if (pos + CEN_HEADER > cen.limit() || cen.getInt(pos) != CEN_SIG) throw new ZipException("Invalid central directory header");
+
+            int flags = cen.getShort(pos + 8) & 0xFFFF;
+            int method = cen.getShort(pos + 10) & 0xFFFF;
+            int dosTime = cen.getInt(pos + 12);
+            long crc = cen.getInt(pos + 16) & ZIP64_MAGIC;
+            long compressedSize = cen.getInt(pos + 20) & ZIP64_MAGIC;
+            long size = cen.getInt(pos + 24) & ZIP64_MAGIC;
+            int nameLength = cen.getShort(pos + 28) & 0xFFFF;
+            int extraLength = cen.getShort(pos + 30) & 0xFFFF;
+            int commentLength = cen.getShort(pos + 32) & 0xFFFF;
+            long offset = cen.getInt(pos + 42) & ZIP64_MAGIC;
+
+            int next = pos + CEN_HEADER + nameLength + extraLength + commentLength;
+            if (next > cen.limit()) throw new ZipException("Truncated central directory header");
+
+            byte[] name = new byte[nameLength];
+            cen.get(pos + CEN_HEADER, name);
+
+            // Sizes & offsets which don't fit in 32 bits are stored in the zip64 extra field, in this order
+            if (size == ZIP64_MAGIC || compressedSize == ZIP64_MAGIC || offset == ZIP64_MAGIC) {
+                int extra = pos + CEN_HEADER + nameLength;
+                int extraEnd = extra + extraLength;
+                while (extra + 4 <= extraEnd) {
+                    int id = cen.getShort(extra) & 0xFFFF;
+                    int length = cen.getShort(extra + 2) & 0xFFFF;
+                    if (id == ZIP64_EXTRA) {
+                        int field = extra + 4;
+                        if (size == ZIP64_MAGIC) { size = cen.getLong(field); field += 8; }
+                        if (compressedSize == ZIP64_MAGIC) { compressedSize = cen.getLong(field); field += 8; }
+                        if (offset == ZIP64_MAGIC) offset = cen.getLong(field);
+                        break;
+                    }
+                    extra += 4 + length;
+                }
+            }
+
+            entries.add(new Entry(new String(name, StandardCharsets.UTF_8), method, flags, crc, compressedSize, size, dosTime, offset));
+            pos = next;
+        }
+        return entries;
+    }
+
+    static void readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            int read = channel.read(buffer, position + buffer.position());
+            if (read < 0) throw new ZipException("Unexpected end of file");
+        }
+        buffer.flip();
+    }
+
+    /**
+     * Lists a directory of an exploded jar, forking a task for every sub directory.
+     */
+    private static final class DirectoryWalk extends RecursiveTask<List<Entry>> {
+
+        private static final long serialVersionUID = 1L;
+
+        private final Path root;
+        private final Path directory;
+
+        private DirectoryWalk(Path root, Path directory) {
+            this.root = root;
+            this.directory = directory;
+        }
+
+        @Override
+        protected List<Entry> compute() {
+            List<Entry> entries = new ArrayList<>();
+            List<DirectoryWalk> children = new ArrayList<>();
+            try (DirectoryStream<Path> stream = Files.newDirectoryStream(this.directory)) {
+                for (Path path : stream) {
+                    // Symbolic links to directories aren't followed, they could loop back on themselves
+                    BasicFileAttributes attributes = Files.readAttributes(path, BasicFileAttributes.class, LinkOption.NOFOLLOW_LINKS);
+                    if (attributes.isSymbolicLink()) attributes = Files.readAttributes(path, BasicFileAttributes.class);
+
+                    if (attributes.isDirectory()) {
+                        if (!Files.isSymbolicLink(path)) children.add(new DirectoryWalk(this.root, path));
+                    } else if (attributes.isRegularFile()) {
+                        String name = this.root.relativize(path).toString().replace(path.getFileSystem().getSeparator(), "/");
+                        LocalDateTime modified = LocalDateTime.ofInstant(attributes.lastModifiedTime().toInstant(), ZoneId.systemDefault());
+                        // Files aren't read while walking, so their CRC is unknown
+                        entries.add(new Entry(name, ZipEntry.STORED, 0, -1, attributes.size(), attributes.size(), JarWriter.javaToDosTime(modified), -1));
+                    }
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+
+            invokeAll(children);
+            for (DirectoryWalk child : children) entries.addAll(child.join());
+            return entries;
+        }
+    }
+
+    /**
+     * A single entry in the central directory.
+     *
+     * @param name The entry name `life/savag3/example/Core.class`
+     * @param method The compression method of the stored data
+     * @param flags The general purpose bit flags
+     * @param crc The CRC-32 of the uncompressed data, or -1 if unknown
+     * @param compressedSize The size of the stored data
+     * @param size The size of the uncompressed data
+     * @param dosTime The last modified time, in MS-DOS format
+     * @param localHeaderOffset The offset of the local header, or -1 if the entry can't be copied raw
+     */
+    public record Entry(String name, int method, int flags, long crc, long compressedSize, long size, int dosTime, long localHeaderOffset) {
+
+        public boolean isDirectory() {
+            return this.name.endsWith("/");
+        }
+
+        public boolean isRaw() {
+            return this.localHeaderOffset >= 0;
+        }
+    }
+}
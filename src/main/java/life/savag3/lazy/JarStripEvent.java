@@ -0,0 +1,43 @@
+package life.savag3.lazy;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * JFR event emitted for every jar stripped, spanning the whole job from opening the input jar to closing the output jar.
+ *
+ * @author Jacob C (Savag3life)
+ * @since 2026-10-18
+ */
+@Name("life.savag3.lazy.JarStrip")
+@Label("Jar Strip")
+@Category("Lazy")
+@Description("A single jar stripped by Lazy")
+@StackTrace(false)
+public class JarStripEvent extends Event {
+
+    @Label("Input")
+    public String input;
+
+    @Label("Output")
+    public String output;
+
+    @Label("Classes")
+    public int classes;
+
+    @Label("Original Size")
+    @DataAmount
+    public long originalSize;
+
+    @Label("Stripped Size")
+    @DataAmount
+    public long size;
+
+    @Label("Failed")
+    public boolean failed;
+}
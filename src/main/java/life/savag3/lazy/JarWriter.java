@@ -0,0 +1,302 @@
+package life.savag3.lazy;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipException;
+
+import static life.savag3.lazy.JarIndex.*;
+
+/**
+ * Minimal zip writer used to build the output jar. Unlike {@link java.util.jar.JarOutputStream} it can copy
+ * entries which are already compressed straight from the input jar, without inflating & re-deflating them,
+ * and write entries which were compressed ahead of time on other threads with {@link #compress(String, byte[], Compression, int)}.
+ * Not thread safe, entries are written in the order they're given.
+ *
+ * @author Jacob C (Savag3life)
+ * @since 2026-10-18
+ */
+public final class JarWriter implements Closeable {
+
+    private static final int FLAG_UTF8 = 0x800;
+    private static final int FLAG_DATA_DESCRIPTOR = 0x8;
+
+    private final WritableByteChannel out;
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(1 << 17).order(ByteOrder.LITTLE_ENDIAN);
+    private long position;
+
+    private final List<CentralRecord> central = new ArrayList<>();
+    private final Set<String> names = new HashSet<>();
+
+    // Deflaters are expensive to create, so each thread keeps one for every entry it compresses
+    private static final ThreadLocal<Deflater> DEFLATERS = ThreadLocal.withInitial(() -> new Deflater(Deflater.DEFAULT_COMPRESSION, true));
+
+    // Timestamp of written entries when REPRODUCIBLE_OUTPUT is set, the earliest time every zip tool reads back the same
+    private static final int FIXED_DOS_TIME = javaToDosTime(LocalDateTime.of(1980, 2, 1, 0, 0));
+
+    private final int dosTime;
+
+    public enum Compression {
+        // Entries are written uncompressed, the fastest option for jars which are only used locally
+        STORED,
+        // Entries are deflated using the configured compression level
+        DEFLATED
+    }
+
+    /**
+     * @param out Where to write the jar
+     * @param reproducible True to give every entry the same fixed timestamp, see {@link LazyConfig#isReproducibleOutput()}
+     */
+    public JarWriter(WritableByteChannel out, boolean reproducible) {
+        this.out = out;
+        this.dosTime = reproducible ? FIXED_DOS_TIME : javaToDosTime(LocalDateTime.now());
+    }
+
+    /**
+     * Write an entry which has already been compressed.
+     *
+     * @param entry The compressed entry
+     */
+    public void write(Compressed entry) throws IOException {
+        writeLocalHeader(entry.name(), entry.method(), 0, entry.crc(), entry.length(), entry.size(), this.dosTime);
+        writeBytes(entry.data(), entry.length());
+    }
+
+    /**
+     * Compress an entry, ready to be written by any writer. Safe to call from any thread.
+     *
+     * @param name The entry name `life/savag3/example/Core.class`
+     * @param bytes The uncompressed entry content
+     * @param compression The compression to use
+     * @param level The deflate level, from 0 (no compression) to 9 (smallest), or -1 for the zlib default. Levels outside
+     *              the range are clamped to it
+     * @return The compressed entry
+     */
+    public static Compressed compress(String name, byte[] bytes, Compression compression, int level) {
+        CRC32 crc = new CRC32();
+        crc.update(bytes);
+        if (compression == Compression.STORED) {
+            return new Compressed(name, ZipEntry.STORED, crc.getValue(), bytes.length, bytes, bytes.length);
+        }
+
+        Deflater deflater = DEFLATERS.get();
+        deflater.reset();
+        deflater.setLevel(Math.max(Deflater.DEFAULT_COMPRESSION, Math.min(Deflater.BEST_COMPRESSION, level)));
+        deflater.setInput(bytes);
+        deflater.finish();
+
+        // Deflate output is rarely larger than the input, only grow the buffer when it is
+        byte[] deflated = new byte[bytes.length + (bytes.length >> 12) + 64];
+        int length = 0;
+        while (!deflater.finished()) {
+            if (length == deflated.length) deflated = Arrays.copyOf(deflated, deflated.length * 2);
+            length += deflater.deflate(deflated, length, deflated.length - length);
+        }
+        return new Compressed(name, ZipEntry.DEFLATED, crc.getValue(), bytes.length, deflated, length);
+    }
+
+    /**
+     * Copy the already compressed bytes of an entry from a jar on disk.
+     *
+     * @param entry The entry being copied, as read from the input jar's central directory
+     * @param source The input jar
+     * @param dataOffset The offset of the entry's compressed data in the input jar
+     */
+    public void copy(JarIndex.Entry entry, FileChannel source, long dataOffset) throws IOException {
+        // Sizes are known up front, so the copy never needs a data descriptor
+        int flags = entry.flags() & ~FLAG_DATA_DESCRIPTOR;
+        writeLocalHeader(entry.name(), entry.method(), flags, entry.crc(), entry.compressedSize(), entry.size(), entry.dosTime());
+
+        flush();
+        long remaining = entry.compressedSize();
+        while (remaining > 0) {
+            long copied = source.transferTo(dataOffset, remaining, this.out);
+            if (copied <= 0) throw new ZipException("Unexpected end of entry data: " + entry.name());
+            dataOffset += copied;
+            remaining -= copied;
+        }
+        this.position += entry.compressedSize();
+    }
+
+    /**
+     * Write the central directory & close the underlying channel.
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            long cenOffset = this.position;
+            for (CentralRecord record : this.central) writeCentralRecord(record);
+            long cenSize = this.position - cenOffset;
+            writeEnd(cenOffset, cenSize);
+            flush();
+        } finally {
+            this.out.close();
+        }
+    }
+
+    private void writeLocalHeader(String name, int method, int flags, long crc, long compressedSize, long size, int dosTime) throws IOException {
+        if (!this.names.add(name)) throw new ZipException("duplicate entry: " + name);
+
+        byte[] nameBytes = name.getBytes(StandardCharsets.UTF_8);
+        boolean zip64 = compressedSize >= ZIP64_MAGIC || size >= ZIP64_MAGIC;
+        flags |= FLAG_UTF8;
+
+        this.central.add(new CentralRecord(nameBytes, method, flags, crc, compressedSize, size, dosTime, this.position));
+
+        ensure(30 + nameBytes.length + 20);
+        this.buffer.putInt(LOC_SIG);
+        this.buffer.putShort((short) (zip64 ? 45 : 20));
+        this.buffer.putShort((short) flags);
+        this.buffer.putShort((short) method);
+        this.buffer.putInt(dosTime);
+        this.buffer.putInt((int) crc);
+        this.buffer.putInt((int) (zip64 ? ZIP64_MAGIC : compressedSize));
+        this.buffer.putInt((int) (zip64 ? ZIP64_MAGIC : size));
+        this.buffer.putShort((short) nameBytes.length);
+        this.buffer.putShort((short) (zip64 ? 20 : 0));
+        this.buffer.put(nameBytes);
+        if (zip64) {
+            this.buffer.putShort((short) ZIP64_EXTRA);
+            this.buffer.putShort((short) 16);
+            this.buffer.putLong(size);
+            this.buffer.putLong(compressedSize);
+        }
+        this.position += 30 + nameBytes.length + (zip64 ? 20 : 0);
+    }
+
+    private void writeCentralRecord(CentralRecord record) throws IOException {
+        boolean sizes64 = record.size() >= ZIP64_MAGIC || record.compressedSize() >= ZIP64_MAGIC;
+        boolean offset64 = record.offset() >= ZIP64_MAGIC;
+        int extraLength = (sizes64 ? 16 : 0) + (offset64 ? 8 : 0);
+        if (extraLength > 0) extraLength += 4;
+
+        ensure(46 + record.name().length + extraLength);
+        this.buffer.putInt(CEN_SIG);
+        this.buffer.putShort((short) (extraLength > 0 ? 45 : 20));
+        this.buffer.putShort((short) (extraLength > 0 ? 45 : 20));
+        this.buffer.putShort((short) record.flags());
+        this.buffer.putShort((short) record.method());
+        this.buffer.putInt(record.dosTime());
+        this.buffer.putInt((int) record.crc());
+        this.buffer.putInt((int) (sizes64 ? ZIP64_MAGIC : record.compressedSize()));
+        this.buffer.putInt((int) (sizes64 ? ZIP64_MAGIC : record.size()));
+        this.buffer.putShort((short) record.name().length);
+        this.buffer.putShort((short) extraLength);
+        this.buffer.putShort((short) 0); // Comment length
+        this.buffer.putShort((short) 0); // Disk number
+        this.buffer.putShort((short) 0); // Internal attributes
+        this.buffer.putInt(0); // External attributes
+        this.buffer.putInt((int) (offset64 ? ZIP64_MAGIC : record.offset()));
+        this.buffer.put(record.name());
+        if (extraLength > 0) {
+            this.buffer.putShort((short) ZIP64_EXTRA);
+            this.buffer.putShort((short) (extraLength - 4));
+            if (sizes64) {
+                this.buffer.putLong(record.size());
+                this.buffer.putLong(record.compressedSize());
+            }
+            if (offset64) this.buffer.putLong(record.offset());
+        }
+        this.position += 46 + record.name().length + extraLength;
+    }
+
+    private void writeEnd(long cenOffset, long cenSize) throws IOException {
+        int count = this.central.size();
+        boolean zip64 = count >= 0xFFFF || cenOffset >= ZIP64_MAGIC || cenSize >= ZIP64_MAGIC;
+
+        ensure(56 + 20 + 22);
+        if (zip64) {
+            long end64Offset = this.position;
+            this.buffer.putInt(ZIP64_END_SIG);
+            this.buffer.putLong(44); // Size of the remaining record
+            this.buffer.putShort((short) 45);
+            this.buffer.putShort((short) 45);
+            this.buffer.putInt(0); // Disk number
+            this.buffer.putInt(0); // Disk with the central directory
+            this.buffer.putLong(count);
+            this.buffer.putLong(count);
+            this.buffer.putLong(cenSize);
+            this.buffer.putLong(cenOffset);
+
+            this.buffer.putInt(ZIP64_LOC_SIG);
+            this.buffer.putInt(0); // Disk with the zip64 end record
+            this.buffer.putLong(end64Offset);
+            this.buffer.putInt(1); // Total disks
+            this.position += 56 + 20;
+        }
+
+        this.buffer.putInt(END_SIG);
+        this.buffer.putShort((short) 0); // Disk number
+        this.buffer.putShort((short) 0); // Disk with the central directory
+        this.buffer.putShort((short) Math.min(count, 0xFFFF));
+        this.buffer.putShort((short) Math.min(count, 0xFFFF));
+        this.buffer.putInt((int) Math.min(cenSize, ZIP64_MAGIC));
+        this.buffer.putInt((int) Math.min(cenOffset, ZIP64_MAGIC));
+        this.buffer.putShort((short) 0); // Comment length
+        this.position += 22;
+    }
+
+    private void writeBytes(byte[] bytes, int length) throws IOException {
+        int offset = 0;
+        while (offset < length) {
+            if (!this.buffer.hasRemaining()) flush();
+            int chunk = Math.min(length - offset, this.buffer.remaining());
+            this.buffer.put(bytes, offset, chunk);
+            offset += chunk;
+        }
+        this.position += length;
+    }
+
+    /**
+     * Make sure the buffer has room for a header of the given size.
+     */
+    private void ensure(int bytes) throws IOException {
+        if (this.buffer.remaining() < bytes) flush();
+    }
+
+    private void flush() throws IOException {
+        this.buffer.flip();
+        while (this.buffer.hasRemaining()) this.out.write(this.buffer);
+        this.buffer.clear();
+    }
+
+    /**
+     * Convert a local date & time into the MS-DOS format used by zip headers.
+     */
+    static int javaToDosTime(LocalDateTime time) {
+        if (time.getYear() < 1980) return (1 << 21) | (1 << 16);
+        return (time.getYear() - 1980) << 25
+                | time.getMonthValue() << 21
+                | time.getDayOfMonth() << 16
+                | time.getHour() << 11
+                | time.getMinute() << 5
+                | time.getSecond() >> 1;
+    }
+
+    /**
+     * An entry compressed ahead of time.
+     *
+     * @param name The entry name
+     * @param method The zip compression method, {@link ZipEntry#STORED} or {@link ZipEntry#DEFLATED}
+     * @param crc The CRC-32 of the uncompressed content
+     * @param size The uncompressed size
+     * @param data The compressed content, only the first `length` bytes are used
+     * @param length The compressed size
+     */
+    public record Compressed(String name, int method, long crc, int size, byte[] data, int length) {}
+
+    private record CentralRecord(byte[] name, int method, int flags, long crc, long compressedSize, long size, int dosTime, long offset) {}
+}
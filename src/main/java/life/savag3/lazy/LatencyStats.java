@@ -0,0 +1,61 @@
+package life.savag3.lazy;
+
+import java.util.Arrays;
+
+/**
+ * Latency statistics of the requests handled by the daemon. Percentiles are taken over the most recent
+ * requests only, counts & totals cover every request since the daemon started.
+ *
+ * @author Jacob C (Savag3life)
+ * @since 2026-10-18
+ */
+public final class LatencyStats {
+
+    private static final int WINDOW = 1024; // Number of recent requests kept for percentiles
+
+    private final long[] recent = new long[WINDOW];
+    private long requests;
+    private long failures;
+    private long totalMillis;
+    private long maxMillis;
+
+    /**
+     * Record a finished request.
+     *
+     * @param millis The time taken to handle the request
+     * @param failed True if the request failed
+     */
+    public synchronized void record(long millis, boolean failed) {
+        this.recent[(int) (this.requests % WINDOW)] = millis;
+        this.requests++;
+        if (failed) this.failures++;
+        this.totalMillis += millis;
+        this.maxMillis = Math.max(this.maxMillis, millis);
+    }
+
+    /**
+     * Summarise the recorded requests on a single line.
+     *
+     * @return The summary
+     */
+    public synchronized String summary() {
+        if (this.requests == 0) return "requests=0 failures=0";
+
+        long[] sorted = Arrays.copyOf(this.recent, (int) Math.min(this.requests, WINDOW));
+        Arrays.sort(sorted);
+        return String.format(
+                "requests=%d failures=%d mean=%dms p50=%dms p95=%dms p99=%dms max=%dms",
+                this.requests,
+                this.failures,
+                this.totalMillis / this.requests,
+                percentile(sorted, 0.50D),
+                percentile(sorted, 0.95D),
+                percentile(sorted, 0.99D),
+                this.maxMillis
+        );
+    }
+
+    private static long percentile(long[] sorted, double percentile) {
+        return sorted[(int) Math.min(sorted.length - 1, Math.ceil(percentile * sorted.length) - 1)];
+    }
+}
@@ -4,23 +4,27 @@ import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
 import lombok.Getter;
 
-import java.io.BufferedOutputStream;
 import java.io.File;
-import java.io.FileOutputStream;
 import java.io.IOException;
 import java.lang.reflect.Modifier;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.time.Duration;
 import java.time.Instant;
-import java.util.Enumeration;
-import java.util.HashMap;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
 import java.util.Map;
-import java.util.jar.JarEntry;
-import java.util.jar.JarFile;
-import java.util.jar.JarOutputStream;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
- * Main class for the program. Handles checking arguments, config loading, and acts as a central storage
- * class for the program to pass data around. Also handles the actual processing of the input jar & writing the output jar.
+ * Main class for the program. Handles config loading, and owns the worker pool & class cache shared by
+ * every jar stripped in a run. Each jar is processed & written by its own {@link StripJob}.
  *
  * @author Jacob C (Savag3life)
  * @since 2023-09-04
@@ -29,184 +33,342 @@ public class Lazy {
 
     @Getter private static final String VERSION = "3.1.0-SNAPSHOT";
 
-    private final File output; // Output jar
-
-    private File originalFile; // Original input jar
-    private JarFile originalJarFile; // The opened input jar
-
-    private final HashMap<String, byte[]> resultClassMap = new HashMap<>();
+    private final LazyConfig config; // Options of the run, snapshot once the config is loaded
+    private final LazyStripper stripper; // Worker pool & class cache shared by every jar
+    private final long configLoadNanos; // Time spent loading the config
 
     @Getter private final Gson gson;
     @Getter private final Instant start;
 
+    /**
+     * Strip a single jar, exiting the program if it can't be stripped.
+     *
+     * @param input The path to the input jar.
+     * @param output The path to the output jar.
+     * @param config The path to the config file, or null to use `config.json`.
+     */
     public Lazy(String input, String output, String config) {
-        System.out.println("Lazy Class Stripper v" + VERSION + " - https://github.com/Savag3life/Lazy");
+        this(config);
+
+        try {
+            strip(new File(input), new File(output));
+        } catch (LazyException e) {
+            Log.error(e.getMessage() + " exiting", e.getCause());
+            Log.flush();
+            System.exit(1);
+        } finally {
+            close();
+        }
+    }
+
+    /**
+     * Load the config & start the worker pool, without stripping anything yet. Jars are stripped
+     * with {@link #strip(File, File)} or {@link #batch(List)}, and the session is ended with {@link #close()}.
+     *
+     * @param config The path to the config file, or null to use `config.json`.
+     */
+    public Lazy(String config) {
+        Log.info("Lazy Class Stripper v" + VERSION + " - https://github.com/Savag3life/Lazy");
         start = Instant.now();
 
-        this.gson = new GsonBuilder()
-                        .setPrettyPrinting()
-                        .disableHtmlEscaping()
-                        .serializeNulls()
-                        .excludeFieldsWithModifiers(Modifier.TRANSIENT, Modifier.VOLATILE)
-                        .create();
+        this.gson = createGson();
 
         // Print working paths for debugging and testing
-        System.out.println("Working Dir - " + new File("").getAbsolutePath());
+        Log.info("Working Dir - " + new File("").getAbsolutePath());
 
         // Load config
-        loadOrCreateConfig(config);
+        long configStart = System.nanoTime();
+        this.config = loadOrCreateConfig(config);
+        this.configLoadNanos = System.nanoTime() - configStart;
 
-        // Load input jar
-        attemptLoadInput(input);
+        // Open the class cache & start the worker pool
+        this.stripper = new LazyStripper(this.config, openCache());
+    }
 
-        this.output = new File(output);
+    /**
+     * Create the Gson instance used to read & write the config.
+     *
+     * @return The Gson instance
+     */
+    static Gson createGson() {
+        return new GsonBuilder()
+                .setPrettyPrinting()
+                .disableHtmlEscaping()
+                .serializeNulls()
+                .excludeFieldsWithModifiers(Modifier.TRANSIENT, Modifier.VOLATILE)
+                .create();
+    }
 
+    /**
+     * Strip a single jar using the shared worker pool.
+     *
+     * @param input The input jar.
+     * @param output The output jar.
+     * @return The summary of the stripped jar.
+     * @throws LazyException If the jar couldn't be stripped.
+     */
+    public StripResult strip(File input, File output) throws LazyException {
+        Instant jobStart = Instant.now();
         try {
-            this.output.createNewFile();
-        } catch (IOException er) {
-            System.out.println("Couldn't create output file... exiting");
-            er.printStackTrace();
-            System.exit(1);
-            return;
+            StripResult result = this.stripper.strip(input.toPath(), output.toPath());
+            printCacheSummary();
+            writeReport(List.of(result));
+            writePruneReport(List.of(result));
+            return result;
+        } catch (LazyException e) {
+            writeReport(List.of(StripResult.failed(input, output, Duration.between(jobStart, Instant.now()).toMillis(), e)));
+            throw e;
         }
+    }
 
-        System.out.println(" ");
+    /**
+     * Strip many jars in a single run. Jars share the worker pool & class cache, and are started largest first
+     * so a big jar isn't left running alone at the end. A jar which fails doesn't stop the other jars.
+     *
+     * @param jars The input & output jar of each job.
+     * @return The result of each job, in the order given.
+     */
+    public List<StripResult> batch(List<Map.Entry<File, File>> jars) {
+        int concurrent = this.config.getBatchConcurrentJars() > 0 ? this.config.getBatchConcurrentJars() : Math.max(2, this.stripper.getThreads() / 2);
+        concurrent = Math.min(concurrent, Math.max(1, jars.size()));
+        Log.info("Stripping " + jars.size() + " jar(s), " + concurrent + " at a time");
 
-        // Enumerate over jarfile entries
-        for (Enumeration<JarEntry> list = originalJarFile.entries(); list.hasMoreElements(); ) {
-            JarEntry clazz = list.nextElement();
-            if (clazz.isDirectory()) continue;
-            // We only care about class files.
-            if (!clazz.getName().endsWith(".class")) continue;
-            try {
-                // Check if a class is excluded | true ? skip : process
-                if (PackageUtils.isExcluded(clazz.getName())) continue;
-                // Check if a class is exempt | true ? write whole class to output : write stripped class to output
-                System.out.println("Processing " + clazz.getName());
-                if (PackageUtils.isExempt(clazz.getName())) {
-                    add(clazz.getName(), originalJarFile.getInputStream(clazz).readAllBytes());
-                } else {
-                    LazyClassTransformer transformer = new LazyClassTransformer(originalJarFile.getInputStream(clazz).readAllBytes());
-                    add(clazz.getName(), transformer.transform());
+        List<Integer> order = new ArrayList<>();
+        for (int x = 0; x < jars.size(); x++) order.add(x);
+        order.sort(Comparator.comparingLong((Integer x) -> jars.get(x).getKey().length()).reversed());
+
+        AtomicInteger counter = new AtomicInteger();
+        ExecutorService coordinators = Executors.newFixedThreadPool(concurrent, runnable -> {
+            Thread thread = new Thread(runnable, "Lazy-Job-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        List<Future<StripResult>> futures = new ArrayList<>(Collections.nCopies(jars.size(), null));
+        for (int x : order) {
+            File input = jars.get(x).getKey();
+            File output = jars.get(x).getValue();
+            futures.set(x, coordinators.submit(() -> {
+                Instant jobStart = Instant.now();
+                try {
+                    return this.stripper.strip(input.toPath(), output.toPath());
+                } catch (LazyException e) {
+                    Log.error("Failed to strip jar. (" + input.getAbsolutePath() + ") " + e.getMessage(), e.getCause());
+                    return StripResult.failed(input, output, Duration.between(jobStart, Instant.now()).toMillis(), e);
+                }
+            }));
+        }
+
+        List<StripResult> results = new ArrayList<>();
+        try {
+            for (int x = 0; x < jars.size(); x++) {
+                try {
+                    results.add(futures.get(x).get());
+                } catch (ExecutionException e) {
+                    // Only unexpected errors end up here, the job itself reports LazyExceptions
+                    File input = jars.get(x).getKey();
+                    Log.error("Failed to strip jar. (" + input.getAbsolutePath() + ")", e.getCause());
+                    results.add(StripResult.failed(input, jars.get(x).getValue(), 0, new LazyException("Unexpected failure", e.getCause())));
                 }
-            } catch (Exception e) {
-                System.out.println("Failed while processing class: " + clazz.getName());
-                if (Config.VERBOSE) e.printStackTrace();
-                System.out.println("Skipping class...");
             }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            for (Future<StripResult> future : futures) future.cancel(true);
+        } finally {
+            coordinators.shutdownNow();
         }
 
-        // Pack & write the output jar
-        pack();
+        printBatchSummary(results);
+        printCacheSummary();
+        writeReport(results);
+        writePruneReport(results);
+        return results;
     }
 
     /**
-     * Attempt to load a config file if provided via the command line.
-     * If the file doesn't exist, create a new config file.
+     * Strip a jar or class directory, then keep the output up to date as the input changes, re-stripping only
+     * the changed entries. Blocks until the thread is interrupted or the JVM shuts down.
      *
-     * @param config The path to the config file.
+     * @param input The input jar or class directory.
+     * @param output The output jar or directory.
+     * @throws LazyException If the input can't be watched or the output can't be written.
      */
-    private void loadOrCreateConfig(String config) {
-        if (config != null) {
-            // Read the config file from disk if it exists
-            System.out.println("Reading Config... (" +  config + ")");
-            Config.load(this, config);
-        } else {
-            // Create a new config file if one doesn't exist
-            Config.load(this);
+    public void watch(File input, File output) throws LazyException {
+        LazyWatcher watcher = new LazyWatcher(this.stripper, input.toPath(), output.toPath());
+        Thread hook = new Thread(watcher::stop, "Lazy-Watch-Shutdown");
+        Runtime.getRuntime().addShutdownHook(hook);
+        try {
+            watcher.run();
+        } finally {
+            try {
+                Runtime.getRuntime().removeShutdownHook(hook);
+            } catch (IllegalStateException ignored) {
+                // Already shutting down
+            }
         }
     }
 
     /**
-     * Attempt to load the input jar provided via the command line.
-     * If the file doesn't exist, exit the program.
+     * Stop the worker pool & trim the class cache. The session can't be used afterwards.
+     */
+    public void close() {
+        this.stripper.close();
+        Log.flush();
+    }
+
+    /**
+     * Print a row per jar of a batch, followed by the totals.
      *
-     * @param inputFile The path to the input jar file.
+     * @param results The results of the batch.
      */
-    private void attemptLoadInput(String inputFile) {
-        this.originalFile = new File(inputFile);
+    private void printBatchSummary(List<StripResult> results) {
+        long originalSize = 0, size = 0;
+        int failed = 0;
 
-        if (!this.originalFile.exists()) {
-            System.out.println("Input file doesn't exist... exiting");
-            System.exit(1);
-            return;
-        }
+        Log.info(" ");
+        Log.info("%-8s %8s %8s %12s %12s %8s  %s", "Status", "Classes", "Copied", "Original", "Size", "Time", "Jar");
+        for (StripResult result : results) {
+            if (result.isFailed()) {
+                failed++;
+                Log.info("%-8s %8s %8s %12d %12s %6dms  %s (%s)", "FAILED", "-", "-", result.originalSize(), "-", result.millis(), result.input().getPath(), result.failure().getMessage());
+                continue;
+            }
 
-        System.out.println("Reading Jar... (" + originalFile.getAbsolutePath() + ")");
-        try {
-            this.originalJarFile = new JarFile(originalFile);
-        } catch (IOException e) {
-            System.out.println("Failed to read jar file. (" + originalFile.getAbsolutePath() + ")");
-            e.printStackTrace();
-            System.exit(1);
+            originalSize += result.originalSize();
+            size += result.size();
+            Log.info("%-8s %8d %8d %12d %12d %6dms  %s", "OK", result.classes(), result.copied(), result.originalSize(), result.size(), result.millis(), result.input().getPath());
         }
+
+        Log.info(" ");
+        Log.info("Stripped %d of %d jar(s) in %dms; Size reduced from %d to %d bytes",
+                results.size() - failed,
+                results.size(),
+                Duration.between(start, Instant.now()).toMillis(),
+                originalSize,
+                size
+        );
     }
 
     /**
-     * Add byte that represent a class to the results map to be written to final jar.
-     * @param pack The package & class name `life/savag3/example/Core.class`
-     * @param bytes The bytes that are contained in the cleaned class.
+     * Write the JSON metrics report of a run, if one is configured. A report which can't be written is
+     * reported & skipped, the jars have already been written.
+     *
+     * @param results The results of the run.
      */
-    public void add(String pack, byte[] bytes) {
-        this.resultClassMap.put(pack, bytes);
-    }
+    private void writeReport(List<StripResult> results) {
+        if (this.config.getMetricsReport() == null || this.config.getMetricsReport().isBlank()) return;
 
+        Path path = Path.of(this.config.getMetricsReport());
+        try {
+            new MetricsReport(this.configLoadNanos, results).write(this.gson, path);
+            Log.info("Metrics report saved to " + path.toAbsolutePath());
+        } catch (IOException e) {
+            Log.error("Failed to write metrics report. (" + path.toAbsolutePath() + ")", e);
+        }
+    }
 
     /**
-     * Pack the results of the classes stored in results map into a new jar file.
+     * Write the classes pruned from each jar of a run, if a prune report is configured. Each jar is listed
+     * as a `# input -> output` line followed by the entry names of its pruned classes.
+     *
+     * @param results The results of the run.
      */
-    public void pack() {
-        System.out.println(" ");
-        System.out.println("Writing new Jar (" + this.output.getAbsolutePath() + ")");
+    private void writePruneReport(List<StripResult> results) {
+        if (!this.config.isPruneUnreachable() || this.config.getPruneReport() == null || this.config.getPruneReport().isBlank()) return;
 
-        JarOutputStream jarOutputStream;
+        List<String> lines = new ArrayList<>();
+        for (StripResult result : results) {
+            if (result.isFailed()) continue;
+            lines.add("# " + result.input().getAbsolutePath() + " -> " + result.output().getAbsolutePath() + " (" + result.pruned().size() + " pruned)");
+            lines.addAll(result.pruned());
+        }
+
+        Path path = Path.of(this.config.getPruneReport());
         try {
-            jarOutputStream = new JarOutputStream(new BufferedOutputStream(new FileOutputStream(this.output.getAbsolutePath())), this.originalJarFile.getManifest());
+            Path parent = path.toAbsolutePath().getParent();
+            if (parent != null) Files.createDirectories(parent);
+            Files.write(path, lines);
+            Log.info("Prune report saved to " + path.toAbsolutePath());
         } catch (IOException e) {
-            System.out.println("Failed to write jar file. (" + this.output.getAbsolutePath() + ")");
-            System.out.println("Failed to create JarOutputStream object.");
-            e.printStackTrace();
-            System.exit(1);
-            return;
+            Log.error("Failed to write prune report. (" + path.toAbsolutePath() + ")", e);
         }
+    }
 
+    /**
+     * Print the class cache hit rate, if the cache is enabled.
+     */
+    private void printCacheSummary() {
+        ClassCache cache = this.stripper.getCache();
+        if (cache == null) return;
+
+        long hits = cache.getHits().sum();
+        long misses = cache.getMisses().sum();
+        Log.info("Class cache: %d hits, %d misses; Hit rate %.2f%%",
+                hits,
+                misses,
+                hits + misses == 0 ? 0.0D : (double) hits / (double) (hits + misses) * 100.0D
+        );
+    }
+
+    /**
+     * Attempt to load a config file if provided via the command line.
+     * If the file doesn't exist, create a new config file.
+     * <p>
+     * The file is read once into an immutable snapshot, {@link Config} isn't changed. Options missing from the file
+     * keep their default values, so sessions of different configs never mix options.
+     *
+     * @param config The path to the config file.
+     * @return The snapshot of the loaded config, used for the rest of the run.
+     */
+    private LazyConfig loadOrCreateConfig(String config) {
+        Path path = Path.of(config == null ? "config.json" : config);
+        // Read the config file from disk if it exists
+        if (config != null) Log.info("Reading Config... (" +  config + ")");
+
+        LazyConfig loaded;
         try {
-            for (Map.Entry<String, byte[]> pack : this.resultClassMap.entrySet()) {
-                if (Config.VERBOSE) System.out.print(" .. Writing " + pack.getKey());
-                JarEntry j = new JarEntry(pack.getKey());
-                j.setSize(pack.getValue().length);
-                jarOutputStream.putNextEntry(j);
-                jarOutputStream.write(pack.getValue());
-                jarOutputStream.closeEntry();
-                if (Config.VERBOSE) System.out.print(" ... Done\n");
+            if (!Files.exists(path)) {
+                // Create a new config file if one doesn't exist
+                Log.info("Failed to load config file: " + path);
+                Log.info("Using & writing default config file.");
+                loaded = LazyConfig.current();
+                loaded.save(path);
+            } else if (Files.size(path) == 0) {
+                Log.info("Found config but it was empty: " + path);
+                Log.info("Overwriting with default config.");
+                loaded = LazyConfig.current();
+                loaded.save(path);
+            } else {
+                loaded = LazyConfig.load(path);
             }
+        } catch (LazyException e) {
+            Log.error(e.getMessage() + " using the default config", e.getCause());
+            loaded = LazyConfig.current();
         } catch (IOException e) {
-            System.out.println("Failed to write jar file. (" + this.output.getAbsolutePath() + ")");
-            System.out.println("Failed to write entry to jar file.");
-            e.printStackTrace();
-            System.exit(1);
-            return;
+            Log.error("Failed to load config file: " + path + " using the default config", e);
+            loaded = LazyConfig.current();
         }
 
+        Log.configure(loaded);
+        return loaded;
+    }
+
+    /**
+     * Open the class cache if one is configured. A cache which can't be opened is
+     * reported & skipped, classes are just stripped as normal.
+     *
+     * @return The opened cache, or null if the cache is disabled or couldn't be opened.
+     */
+    private ClassCache openCache() {
+        if (this.config.getCacheDirectory() == null || this.config.getCacheDirectory().isBlank()) return null;
+
+        Path directory = Path.of(this.config.getCacheDirectory());
+        Log.info("Reading Class Cache... (" + directory.toAbsolutePath() + ")");
         try {
-            jarOutputStream.flush();
-            jarOutputStream.close();
-            originalJarFile.close();
+            return ClassCache.open(directory, this.config.getCacheMaxSizeMb() * 1024 * 1024, this.config.getFingerprint());
         } catch (IOException e) {
-            System.out.println("Failed to write jar file. (" + this.output.getAbsolutePath() + ")");
-            System.out.println("Failed to close JarOutputStream object.");
-            e.printStackTrace();
-            System.exit(1);
-            return;
+            Log.error("Failed to open class cache, classes won't be cached. (" + directory.toAbsolutePath() + ")", e);
+            return null;
         }
-
-        System.out.println(" ");
-        System.out.println("Jar saved to " + this.output.getAbsolutePath() + " in " + Duration.between(start, Instant.now()).toMillis() + "ms");
-        System.out.printf(
-                "Original Size: %d bytes, New size: %d bytes; Size reduced by %.2f%%\n",
-                this.originalFile.length(),
-                this.output.length(),
-                Math.abs((1.0D - ((double) this.output.length() / (double) this.originalFile.length()))) * 100.0D
-        );
     }
 }
@@ -3,12 +3,10 @@ package life.savag3.lazy;
 import org.objectweb.asm.ClassReader;
 import org.objectweb.asm.ClassWriter;
 import org.objectweb.asm.Opcodes;
-import org.objectweb.asm.Type;
 import org.objectweb.asm.tree.*;
 
 import java.util.ArrayList;
 import java.util.List;
-import java.util.stream.IntStream;
 
 /**
  * Class transformer to handle method emptying and field exclusion
@@ -18,39 +16,104 @@ import java.util.stream.IntStream;
  */
 public class LazyClassTransformer {
 
-    private final ClassWriter writer;
-    private final ClassReader reader;
-    private final ClassNode node;
+    /**
+     * Engines available for stripping classes.
+     */
+    public enum Engine {
+        // Builds the full ClassNode tree, including method code, before stripping
+        TREE,
+        // Streams the class through a visitor chain, skipping method code & frames at read time
+        VISITOR
+    }
 
-    public LazyClassTransformer(byte[] bytes) {
-        this.writer = new ClassWriter(ClassWriter.COMPUTE_MAXS);
-        this.reader = new ClassReader(bytes);
-        this.node = new ClassNode();
+    // Bumped whenever the same class & config produce different output, so cached classes from older versions aren't reused
+    static final int REVISION = 3;
+
+    private final byte[] bytes;
+    private final LazyConfig config;
+    private ClassReader reader;
+    private int uncompactedSize = -1; // Size of the class before it was compacted, see #getUncompactedSize()
+
+    public LazyClassTransformer(byte[] bytes, LazyConfig config) {
+        this.bytes = bytes;
+        this.config = config;
     }
 
     /**
-     * Handle transforming the class file. We'll first check for method options & then field options.
+     * Handle transforming the class file using the engine selected in the config. Classes which stripping
+     * wouldn't change are returned as-is, without being parsed by ASM.
      *
-     * @return The transformed class file bytes
+     * @return The transformed class file bytes, or the original bytes if nothing needed stripping
+     * @see Config#ENGINE
+     * @see ClassPreScan
      */
     public byte[] transform() {
-        reader.accept(node, 0);
+        return ClassPreScan.needsStripping(this.bytes, this.config) ? strip() : this.bytes;
+    }
 
-        if (!Config.INCLUDE_PRIVATE_METHODS) {
-            node.methods.removeIf(
-                    methodNode -> (methodNode.access & Opcodes.ACC_PRIVATE) != 0 &&
-                            checkMethodAnnotations(methodNode)
-            );
-        }
+    /**
+     * Strip the class with ASM, for callers which have already checked {@link ClassPreScan#needsStripping(byte[], LazyConfig)}.
+     *
+     * @return The transformed class file bytes
+     */
+    byte[] strip() {
+        this.reader = new ClassReader(this.bytes);
+        byte[] stripped = this.config.getEngine() == Engine.TREE ? transformTree() : transformVisitor();
+        if (!this.config.isCompactClasses()) return stripped;
 
-        if (!Config.INCLUDE_NATIVE_METHODS) {
-            node.methods.removeIf(
-                    methodNode -> (methodNode.access & Opcodes.ACC_NATIVE) != 0 &&
-                            checkMethodAnnotations(methodNode)
-            );
-        }
+        this.uncompactedSize = stripped.length;
+        return compact(stripped);
+    }
+
+    /**
+     * Get the size of the stripped class before it was compacted, so what compaction saved can be reported per class.
+     *
+     * @return The size in bytes, or -1 if the class wasn't stripped or compacted
+     * @see Config#COMPACT_CLASSES
+     */
+    public int getUncompactedSize() {
+        return this.uncompactedSize;
+    }
 
-        for (MethodNode method : this.node.methods) {
+    /**
+     * Compact a stripped class with a {@link ClassCompactor}. Stripped classes have no code left to read,
+     * so a second pass over the stripped bytes is cheap & tells exactly how much compaction saved.
+     *
+     * @param stripped The stripped class bytes
+     * @return The compacted class bytes
+     */
+    static byte[] compact(byte[] stripped) {
+        // A fresh writer rather than one sharing the reader's constant pool, so unused constants are dropped
+        ClassWriter writer = new ClassWriter(0);
+        new ClassReader(stripped).accept(new ClassCompactor(writer), 0);
+        return writer.toByteArray();
+    }
+
+    /**
+     * Transform the class by streaming it through a {@link LazyClassVisitor}. Method code & frames are skipped
+     * at read time, so only the members being written are ever materialized.
+     *
+     * @return The transformed class file bytes
+     */
+    private byte[] transformVisitor() {
+        ClassWriter writer = new ClassWriter(0);
+        reader.accept(new LazyClassVisitor(writer, this.config), ClassReader.SKIP_CODE | ClassReader.SKIP_FRAMES);
+        return writer.toByteArray();
+    }
+
+    /**
+     * Transform the class by building the full {@link ClassNode} tree. We'll first check for method options & then field options.
+     *
+     * @return The transformed class file bytes
+     */
+    private byte[] transformTree() {
+        ClassWriter writer = new ClassWriter(0);
+        ClassNode node = new ClassNode();
+        reader.accept(node, 0);
+
+        node.methods.removeIf(method -> isMethodRemoved(method, this.config));
+
+        for (MethodNode method : node.methods) {
             if (method.instructions.size() > 0) {
 
                 // Clear Methods
@@ -58,61 +121,84 @@ public class LazyClassTransformer {
                 method.tryCatchBlocks.clear();
                 method.localVariables.clear();
 
-                // Write new default return
-                if (method.name.equals("<init>") || method.name.equals("<clinit>")) {
-                    method.instructions.add(new InsnNode(Opcodes.RETURN));
-                } else {
-
-                    InsnList list = new InsnList();
-                    resolveReturnType(method, list);
-                    method.instructions.add(list);
-
-                    // Handle Jetbrains contracts.
-                    if (methodRequiresContract(method) &&
-                            Config.DO_JETBRAINS_CONTRACTS) {
-                        handleJetbrainsAnnotation(method);
-                    }
-                }
+                emptyMethod(method, this.config);
             }
         }
 
-        if (!Config.INCLUDE_PUB_STATIC_FIELDS) {
-            node.fields.removeIf(
-                    fieldNode ->
-                            (fieldNode.access & Opcodes.ACC_STATIC) != 0 &&
-                                    (fieldNode.access & Opcodes.ACC_PUBLIC) != 0 &&
-                                    checkFieldAnnotations(fieldNode)
-            );
-        }
+        node.fields.removeIf(field -> isFieldRemoved(field, this.config));
 
-        if (!Config.INCLUDE_PUB_NON_STATIC_FIELDS) {
-            node.fields.removeIf(
-                    fieldNode ->
-                            (fieldNode.access & Opcodes.ACC_STATIC) == 0 &&
-                                    (fieldNode.access & Opcodes.ACC_PUBLIC) != 0 &&
-                                    checkFieldAnnotations(fieldNode)
-            );
+        node.accept(writer);
+        return writer.toByteArray();
+    }
+
+    /**
+     * Check if a method should be removed from the output based on the config options.
+     *
+     * @param method MethodNode to check
+     * @param config The config of the run
+     * @return boolean if the method should be removed
+     */
+    static boolean isMethodRemoved(MethodNode method, LazyConfig config) {
+        if (!config.isIncludePrivateMethods() &&
+                (method.access & Opcodes.ACC_PRIVATE) != 0 &&
+                checkMethodAnnotations(method, config)) {
+            return true;
         }
 
-        if (!Config.INCLUDE_PRI_NON_STATIC_FIELDS) {
-            node.fields.removeIf(
-                    fieldNode ->
-                            (fieldNode.access & Opcodes.ACC_STATIC) == 0 &&
-                                    (fieldNode.access & Opcodes.ACC_PRIVATE) != 0 &&
-                                    checkFieldAnnotations(fieldNode)
-            );
+        return !config.isIncludeNativeMethods() &&
+                (method.access & Opcodes.ACC_NATIVE) != 0 &&
+                checkMethodAnnotations(method, config);
+    }
+
+    /**
+     * Check if a field should be removed from the output based on the config options.
+     *
+     * @param field FieldNode to check
+     * @param config The config of the run
+     * @return boolean if the field should be removed
+     */
+    static boolean isFieldRemoved(FieldNode field, LazyConfig config) {
+        boolean isStatic = (field.access & Opcodes.ACC_STATIC) != 0;
+
+        if ((field.access & Opcodes.ACC_PUBLIC) != 0) {
+            if (isStatic ? config.isIncludePubStaticFields() : config.isIncludePubNonStaticFields()) return false;
+            return checkFieldAnnotations(field, config);
         }
 
-        if (!Config.INCLUDE_PRI_STATIC_FIELDS) {
-            this.node.fields.removeIf(
-                    fieldNode -> (fieldNode.access & Opcodes.ACC_STATIC) != 0 &&
-                            (fieldNode.access & Opcodes.ACC_PRIVATE) != 0 &&
-                            checkFieldAnnotations(fieldNode)
-            );
+        if ((field.access & Opcodes.ACC_PRIVATE) != 0) {
+            if (isStatic ? config.isIncludePriStaticFields() : config.isIncludePriNonStaticFields()) return false;
+            return checkFieldAnnotations(field, config);
         }
 
-        this.node.accept(writer);
-        return writer.toByteArray();
+        return false;
+    }
+
+    /**
+     * Write the default return for a method which has had its code removed,
+     * adding a JetBrains contract where required. The stub is looked up by descriptor,
+     * so only the instructions themselves are allocated per method.
+     *
+     * @param method MethodNode with no instructions
+     * @param config The config of the run
+     */
+    static void emptyMethod(MethodNode method, LazyConfig config) {
+        MethodStub stub = MethodStub.of(method.desc);
+
+        // Write new default return
+        if (stub.getConstantOpcode() != -1) method.instructions.add(new InsnNode(stub.getConstantOpcode()));
+        method.instructions.add(new InsnNode(stub.getReturnOpcode()));
+
+        // Maxs are known up front, so classes are written without COMPUTE_MAXS
+        method.maxStack = stub.getMaxStack();
+        method.maxLocals = stub.getMaxLocals((method.access & Opcodes.ACC_STATIC) != 0);
+
+        // Handle Jetbrains contracts.
+        if (stub.getContract() != null && config.isDoJetbrainsContracts() && methodRequiresContract(method, config)) {
+            if (method.invisibleAnnotations == null) {
+                method.invisibleAnnotations = new ArrayList<>(1);
+            }
+            method.invisibleAnnotations.add(stub.getContract());
+        }
     }
 
     /**
@@ -120,10 +206,11 @@ public class LazyClassTransformer {
      * listed in the config
      *
      * @param node MethodNode to check
+     * @param config The config of the run
      * @return boolean if the method contains any of the annotations we want to keep
      */
-    private boolean checkMethodAnnotations(MethodNode node) {
-        return checkAnnotations(node.visibleAnnotations) && checkAnnotations(node.invisibleAnnotations);
+    private static boolean checkMethodAnnotations(MethodNode node, LazyConfig config) {
+        return checkAnnotations(node.visibleAnnotations, config) && checkAnnotations(node.invisibleAnnotations, config);
     }
 
     /**
@@ -131,10 +218,11 @@ public class LazyClassTransformer {
      * listed in the config
      *
      * @param node FieldNode to check
+     * @param config The config of the run
      * @return boolean if the field contains any of the annotations we want to keep
      */
-    private boolean checkFieldAnnotations(FieldNode node) {
-        return checkAnnotations(node.visibleAnnotations) && checkAnnotations(node.invisibleAnnotations);
+    private static boolean checkFieldAnnotations(FieldNode node, LazyConfig config) {
+        return checkAnnotations(node.visibleAnnotations, config) && checkAnnotations(node.invisibleAnnotations, config);
     }
 
     /**
@@ -142,127 +230,24 @@ public class LazyClassTransformer {
      * we want to keep
      *
      * @param nodes List of AnnotationNodes to check
+     * @param config The config of the run
      * @return boolean if the list contains any of the annotations we want to keep
      */
-    private boolean checkAnnotations(List<AnnotationNode> nodes) {
+    private static boolean checkAnnotations(List<AnnotationNode> nodes, LazyConfig config) {
         if (nodes == null || nodes.isEmpty()) return false;
-        return nodes.stream().noneMatch(annotation -> Config.RETENTION_ANNOTATIONS.contains(annotation.desc));
+        return nodes.stream().noneMatch(annotation -> config.isRetentionAnnotation(annotation.desc));
     }
 
     /**
-     * Resolve the return type for the given node type along with a default return
-     * so that decompilers don't complain about missing returns
+     * Check if a method returning an object needs a @Contract(_,_->!null) contact, as it may now return a null value
+     * due to default return values from class stripping. Helps provide better intellisense to intellij IDE's
+     * & intellij errors for "results may be null"
      *
-     * @param node MethodNode to resolve
-     * @param list InsnList to add to
-     */
-    private void resolveReturnType(MethodNode node, InsnList list) {
-        Type type = Type.getType(node.desc);
-        switch (type.getReturnType().getDescriptor()) {
-            case "I", "Z" -> {
-                list.add(new InsnNode(Opcodes.ICONST_0));
-                list.add(new InsnNode(Opcodes.IRETURN));
-            }
-            case "J" -> {
-                list.add(new InsnNode(Opcodes.LCONST_0));
-                list.add(new InsnNode(Opcodes.LRETURN));
-            }
-            case "F" -> {
-                list.add(new InsnNode(Opcodes.FCONST_0));
-                list.add(new InsnNode(Opcodes.FRETURN));
-            }
-            case "D" -> {
-                list.add(new InsnNode(Opcodes.DCONST_0));
-                list.add(new InsnNode(Opcodes.DRETURN));
-            }
-            case "V" -> {
-                list.add(new InsnNode(Opcodes.RETURN));
-            }
-            default -> {
-                list.add(new InsnNode(Opcodes.ACONST_NULL));
-                list.add(new InsnNode(Opcodes.ARETURN));
-            }
-        }
-    }
-
-    /**
-     * Append a @Contract(_,_->!null) contact to any methods which may now
-     * return a null value due to default return values from class stripping. (any non-void, non-primitive value)
-     * Helps provide better intellisense to intellij IDE's & intellij errors for "results may be null"
-     * @param method MethodNode to append the contract to
-     * @see MethodNode
-     */
-    private void handleJetbrainsAnnotation(MethodNode method) {
-        AnnotationNode contract = new AnnotationNode("Lorg/jetbrains/annotations/Contract;");
-        contract.values = new ArrayList<>();
-        contract.values.add("value");
-
-        int paramCount = resolveParamCount(method.desc);
-        StringBuilder contractValue = new StringBuilder();
-        if (paramCount > 0) {
-            IntStream.range(0, paramCount).forEach(x -> contractValue.append("_,"));
-        }
-
-        contract.values.add((paramCount > 0 ? contractValue.substring(0, contractValue.length() - 1) : "") + "->!null");
-
-        if (method.invisibleAnnotations == null) {
-            method.invisibleAnnotations = new ArrayList<>();
-        }
-        method.invisibleAnnotations.add(contract);
-    }
-
-    /**
-     * Resolve the number of parameters for a given method descriptor
-     * @param raw Method descriptor
-     * @return int number of parameters
-     * @see MethodNode#desc
+     * @param node MethodNode to check
+     * @param config The config of the run
+     * @return boolean if the method needs a contract
      */
-    private int resolveParamCount(String raw) {
-        int count = 0;
-        if (raw.startsWith("()")) return 0;
-
-        // Example Method:     void example(String x, String z)
-        // Example Descriptor: (Ljava/lang/String;Ljava/lang/String;)V
-        // We only want the content in params, plus the tailing `)` to
-        // handle cases which don't end in ';'
-        String desc = raw.substring(raw.indexOf("(") + 1, raw.indexOf(")") + 1);
-        if (desc.isBlank()) return 0;
-        for (int x = 0; x < desc.length() - 1; x++) {
-            char index = desc.charAt(x);
-
-            // Match Ljava/lang/String;
-            if (index == 'L') {
-                count++;
-                x += desc.substring(x).indexOf(";");
-                continue;
-            }
-
-            // Match [Ljava/lang/String;
-            if (index == '[') {
-                count++;
-                int z = desc.substring(x).indexOf(";");
-                if (z == -1) {
-                    z = desc.substring(x).indexOf(")");
-                }
-                x += z;
-                continue;
-            }
-
-            if (index == ')') break;
-
-            int z = x;
-            while (index != ';' && index != ')' && index != 'L') {
-                z++;
-                index = desc.charAt(z);
-                count++;
-            }
-
-            x = z - 1;
-        }
-        return count;
-    }
-
-    private boolean methodRequiresContract(MethodNode node) {
+    private static boolean methodRequiresContract(MethodNode node, LazyConfig config) {
         // Don't need contracts for methods that cannot be referenced
         if ((node.access & Opcodes.ACC_PRIVATE) != 0 ||
                 (node.access & Opcodes.ACC_PROTECTED) != 0) {
@@ -271,20 +256,11 @@ public class LazyClassTransformer {
 
         if (node.visibleAnnotations != null && !node.visibleAnnotations.isEmpty()) {
             // Don't need contract annotations for methods which aren't stripped.
-            if (node.visibleAnnotations.stream()
-                    .anyMatch(annotation -> Config.RETENTION_ANNOTATIONS.contains(annotation.desc))) {
-                return false;
+            for (AnnotationNode annotation : node.visibleAnnotations) {
+                if (config.isRetentionAnnotation(annotation.desc)) return false;
             }
         }
 
-        // Only need to add contracts to methods which don't return (void | int | long | float | double | boolean)
-        Type type = Type.getType(node.desc);
-        String descriptor = type.getReturnType().getDescriptor();
-        return !descriptor.equals("I") &&
-                !descriptor.equals("J") &&
-                !descriptor.equals("F") &&
-                !descriptor.equals("D") &&
-                !descriptor.equals("Z") &&
-                !descriptor.equals("V");
+        return true;
     }
 }
@@ -0,0 +1,53 @@
+package life.savag3.lazy;
+
+import org.objectweb.asm.ClassVisitor;
+import org.objectweb.asm.FieldVisitor;
+import org.objectweb.asm.MethodVisitor;
+import org.objectweb.asm.Opcodes;
+import org.objectweb.asm.tree.FieldNode;
+import org.objectweb.asm.tree.MethodNode;
+
+/**
+ * Streaming class visitor used by the {@link LazyClassTransformer.Engine#VISITOR} engine.
+ * Each field & method is collected on its own (without code, as the class is read using
+ * {@link org.objectweb.asm.ClassReader#SKIP_CODE}), checked against the config & then either
+ * dropped or forwarded to the next visitor in the chain. No class-wide tree is ever built.
+ *
+ * @author Jacob C (Savag3life)
+ * @since 2026-10-18
+ */
+public class LazyClassVisitor extends ClassVisitor {
+
+    private final LazyConfig config;
+
+    public LazyClassVisitor(ClassVisitor next, LazyConfig config) {
+        super(Opcodes.ASM9, next);
+        this.config = config;
+    }
+
+    @Override
+    public FieldVisitor visitField(int access, String name, String descriptor, String signature, Object value) {
+        return new FieldNode(Opcodes.ASM9, access, name, descriptor, signature, value) {
+            @Override
+            public void visitEnd() {
+                if (LazyClassTransformer.isFieldRemoved(this, LazyClassVisitor.this.config)) return;
+                accept(LazyClassVisitor.this.cv);
+            }
+        };
+    }
+
+    @Override
+    public MethodVisitor visitMethod(int access, String name, String descriptor, String signature, String[] exceptions) {
+        return new MethodNode(Opcodes.ASM9, access, name, descriptor, signature, exceptions) {
+            @Override
+            public void visitEnd() {
+                if (LazyClassTransformer.isMethodRemoved(this, LazyClassVisitor.this.config)) return;
+                // Code was skipped while reading, every method which isn't abstract or native had a body
+                if ((this.access & (Opcodes.ACC_ABSTRACT | Opcodes.ACC_NATIVE)) == 0) {
+                    LazyClassTransformer.emptyMethod(this, LazyClassVisitor.this.config);
+                }
+                accept(LazyClassVisitor.this.cv);
+            }
+        };
+    }
+}
@@ -0,0 +1,111 @@
+package life.savag3.lazy;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintWriter;
+import java.net.StandardProtocolFamily;
+import java.net.UnixDomainSocketAddress;
+import java.nio.channels.Channels;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Thin client for {@link LazyDaemon}. Strips jars through a running daemon, or in-process when no daemon is running.
+ *
+ * @author Jacob C (Savag3life)
+ * @since 2026-10-18
+ */
+public class LazyClient {
+
+    private final Path socket; // Path of the daemon's Unix domain socket
+
+    public LazyClient(Path socket) {
+        this.socket = socket;
+    }
+
+    /**
+     * Check if a daemon is listening on a socket.
+     *
+     * @param socket The socket path
+     * @return True if a daemon accepted a connection, false otherwise
+     */
+    public static boolean isRunning(Path socket) {
+        if (!Files.exists(socket)) return false;
+        SocketChannel channel;
+        try {
+            channel = SocketChannel.open(UnixDomainSocketAddress.of(socket));
+        } catch (IOException e) {
+            return false;
+        }
+        // The daemon accepted the connection, failing to close it doesn't change that
+        try {
+            channel.close();
+        } catch (IOException ignored) {}
+        return true;
+    }
+
+    /**
+     * Strip a jar through the daemon, falling back to stripping it in-process if no daemon is running.
+     * Paths are resolved against the client's working directory before being sent.
+     *
+     * @param input The path to the input jar
+     * @param output The path to the output jar
+     * @param config The path to the config file, or null to use `config.json`
+     * @return True if the jar was stripped, false otherwise
+     */
+    public boolean strip(String input, String output, String config) {
+        String configPath = new File(config == null ? "config.json" : config).getAbsolutePath();
+        String response;
+        try {
+            response = send("STRIP\t" + new File(input).getAbsolutePath() + "\t" + new File(output).getAbsolutePath() + "\t" + configPath);
+        } catch (IOException e) {
+            Log.info("No Lazy daemon running on " + this.socket.toAbsolutePath() + ", stripping in-process. (" + e.getMessage() + ")");
+            Lazy lazy = new Lazy(config);
+            try {
+                lazy.strip(new File(input), new File(output));
+                return true;
+            } catch (LazyException er) {
+                Log.error(er.getMessage(), er.getCause());
+                return false;
+            } finally {
+                lazy.close();
+            }
+        }
+
+        String[] fields = response.split("\t");
+        if (!fields[0].equals("OK")) {
+            Log.error("Lazy daemon failed to strip jar: " + (fields.length > 1 ? fields[1] : response));
+            return false;
+        }
+
+        Log.info(
+                "Jar saved to %s in %sms by the Lazy daemon; Processed %s classes, copied %s entries; Size %s -> %s bytes",
+                new File(output).getAbsolutePath(), fields[5], fields[1], fields[2], fields[3], fields[4]
+        );
+        return true;
+    }
+
+    /**
+     * Send a single request to the daemon.
+     *
+     * @param request The request line
+     * @return The response line
+     * @throws IOException If the daemon isn't running or the connection failed
+     */
+    public String send(String request) throws IOException {
+        try (SocketChannel channel = SocketChannel.open(StandardProtocolFamily.UNIX)) {
+            channel.connect(UnixDomainSocketAddress.of(this.socket));
+            PrintWriter out = new PrintWriter(Channels.newWriter(channel, StandardCharsets.UTF_8), true);
+            BufferedReader in = new BufferedReader(new InputStreamReader(Channels.newInputStream(channel), StandardCharsets.UTF_8));
+
+            out.println(request);
+            String response = in.readLine();
+            if (response == null) throw new IOException("Lazy daemon closed the connection");
+            return response;
+        }
+    }
+}
@@ -0,0 +1,301 @@
+package life.savag3.lazy;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
+import com.google.gson.JsonParser;
+import lombok.AccessLevel;
+import lombok.Getter;
+
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Immutable snapshot of every option of a run, resolved once with the EXEMPT / EXCLUDE patterns & retention annotations
+ * precompiled. Each {@link LazyStripper} strips with the snapshot it was opened with, so strippers using different
+ * configs can strip at the same time in one JVM.
+ * <p>
+ * Options are named & documented by the fields of {@link Config}. {@link #current()} snapshots the options currently
+ * set in {@link Config}, {@link #load(Path)} reads a config file on top of the defaults without touching {@link Config}
+ * & {@link #save(Path)} writes every option back out as a config file.
+ *
+ * @author Jacob C (Savag3life)
+ * @since 2026-10-18
+ */
+@Getter
+public final class LazyConfig {
+
+    private final List<String> exempt;
+    private final List<String> exclude;
+    private final boolean includePubStaticFields;
+    private final boolean includePriStaticFields;
+    private final boolean includePubNonStaticFields;
+    private final boolean includePriNonStaticFields;
+    private final boolean includeResources;
+    private final boolean includePrivateMethods;
+    private final boolean includeNativeMethods;
+    private final Set<String> retentionAnnotations;
+    private final boolean doJetbrainsContracts;
+    private final LazyClassTransformer.Engine engine;
+    private final boolean verbose;
+    private final Log.Level logLevel;
+    private final int threads;
+    private final boolean streamOutput;
+    private final int inFlightClasses;
+    private final int batchConcurrentJars;
+    private final boolean stripNestedJars;
+    private final boolean pruneUnreachable;
+    private final String pruneReport;
+    private final JarWriter.Compression outputCompression;
+    private final int compressionLevel;
+    private final boolean compactClasses;
+    private final boolean reproducibleOutput;
+    private final boolean skipUnchangedOutput;
+    private final boolean apiIndex;
+    private final String cacheDirectory;
+    private final long cacheMaxSizeMb;
+    private final String metricsReport;
+    private final int metricsSlowestClasses;
+    private final long watchDebounceMillis;
+    private final long watchPollMillis;
+
+    @Getter(AccessLevel.NONE) private final Map<String, Object> values; // Every option by name, in Config order, see #save(Path)
+    @Getter(AccessLevel.NONE) private final PatternMatcher exemptMatcher;
+    @Getter(AccessLevel.NONE) private final PatternMatcher excludeMatcher;
+    private final String fingerprint; // Every option which changes the stripped output of a class, see #fingerprint()
+
+    @SuppressWarnings("unchecked")
+    private LazyConfig(Map<String, Object> values) {
+        this.exempt = List.copyOf((List<String>) values.get("EXEMPT"));
+        this.exclude = List.copyOf((List<String>) values.get("EXCLUDE"));
+        this.includePubStaticFields = (boolean) values.get("INCLUDE_PUB_STATIC_FIELDS");
+        this.includePriStaticFields = (boolean) values.get("INCLUDE_PRI_STATIC_FIELDS");
+        this.includePubNonStaticFields = (boolean) values.get("INCLUDE_PUB_NON_STATIC_FIELDS");
+        this.includePriNonStaticFields = (boolean) values.get("INCLUDE_PRI_NON_STATIC_FIELDS");
+        this.includeResources = (boolean) values.get("INCLUDE_RESOURCES");
+        this.includePrivateMethods = (boolean) values.get("INCLUDE_PRIVATE_METHODS");
+        this.includeNativeMethods = (boolean) values.get("INCLUDE_NATIVE_METHODS");
+        this.retentionAnnotations = Set.copyOf((List<String>) values.get("RETENTION_ANNOTATIONS"));
+        this.doJetbrainsContracts = (boolean) values.get("DO_JETBRAINS_CONTRACTS");
+        this.engine = (LazyClassTransformer.Engine) values.get("ENGINE");
+        this.verbose = (boolean) values.get("VERBOSE");
+        this.logLevel = (Log.Level) values.get("LOG_LEVEL");
+        this.threads = (int) values.get("THREADS");
+        this.streamOutput = (boolean) values.get("STREAM_OUTPUT");
+        this.inFlightClasses = (int) values.get("IN_FLIGHT_CLASSES");
+        this.batchConcurrentJars = (int) values.get("BATCH_CONCURRENT_JARS");
+        this.stripNestedJars = (boolean) values.get("STRIP_NESTED_JARS");
+        this.pruneUnreachable = (boolean) values.get("PRUNE_UNREACHABLE");
+        this.pruneReport = (String) values.get("PRUNE_REPORT");
+        this.outputCompression = (JarWriter.Compression) values.get("OUTPUT_COMPRESSION");
+        this.compressionLevel = (int) values.get("COMPRESSION_LEVEL");
+        this.compactClasses = (boolean) values.get("COMPACT_CLASSES");
+        this.reproducibleOutput = (boolean) values.get("REPRODUCIBLE_OUTPUT");
+        this.skipUnchangedOutput = (boolean) values.get("SKIP_UNCHANGED_OUTPUT");
+        this.apiIndex = (boolean) values.get("API_INDEX");
+        this.cacheDirectory = (String) values.get("CACHE_DIRECTORY");
+        this.cacheMaxSizeMb = (long) values.get("CACHE_MAX_SIZE_MB");
+        this.metricsReport = (String) values.get("METRICS_REPORT");
+        this.metricsSlowestClasses = (int) values.get("METRICS_SLOWEST_CLASSES");
+        this.watchDebounceMillis = (long) values.get("WATCH_DEBOUNCE_MILLIS");
+        this.watchPollMillis = (long) values.get("WATCH_POLL_MILLIS");
+
+        this.values = Collections.unmodifiableMap(new LinkedHashMap<>(values));
+        this.exemptMatcher = PatternMatcher.compile(this.exempt);
+        this.excludeMatcher = PatternMatcher.compile(this.exclude);
+        this.fingerprint = fingerprint((List<String>) values.get("RETENTION_ANNOTATIONS"));
+    }
+
+    /**
+     * Snapshot the options currently set in {@link Config}.
+     *
+     * @return The config
+     */
+    public static LazyConfig current() {
+        return new LazyConfig(snapshot());
+    }
+
+    /**
+     * Read a config file. Options missing from the file keep their default values, {@link Config} isn't changed.
+     *
+     * @param file The config file
+     * @return The config
+     * @throws LazyException If the file can't be read or isn't a valid config
+     */
+    public static LazyConfig load(Path file) throws LazyException {
+        Gson gson = Lazy.createGson();
+        Map<String, Object> values = new LinkedHashMap<>(Config.DEFAULTS);
+        try {
+            String content = Files.readString(file);
+            if (content.isBlank()) return new LazyConfig(values);
+
+            JsonObject json = JsonParser.parseString(content).getAsJsonObject();
+            for (Map.Entry<String, JsonElement> option : json.entrySet()) {
+                Field field = option(option.getKey());
+                // Unknown options are ignored, as they are when loading into Config
+                if (field != null && !option.getValue().isJsonNull()) values.put(field.getName(), gson.fromJson(option.getValue(), field.getGenericType()));
+            }
+            return new LazyConfig(values);
+        } catch (IOException e) {
+            throw new LazyException("Failed to read config file. (" + file.toAbsolutePath() + ")", e);
+        } catch (JsonParseException | IllegalStateException | ClassCastException e) {
+            throw new LazyException("Invalid config file. (" + file.toAbsolutePath() + ")", e);
+        }
+    }
+
+    /**
+     * Write every option to a config file, in the same format as the config files read by {@link #load(Path)}.
+     *
+     * @param file The config file, replaced if it exists
+     * @throws LazyException If the file can't be written
+     */
+    public void save(Path file) throws LazyException {
+        try {
+            Path parent = file.toAbsolutePath().getParent();
+            if (parent != null) Files.createDirectories(parent);
+            Files.writeString(file, Lazy.createGson().toJson(this.values));
+        } catch (IOException e) {
+            throw new LazyException("Failed to write config file. (" + file.toAbsolutePath() + ")", e);
+        }
+    }
+
+    /**
+     * Copy the current value of every option in {@link Config}. Lists are copied, so later changes to Config aren't seen.
+     *
+     * @return The option values, by option name
+     */
+    static Map<String, Object> snapshot() {
+        Map<String, Object> values = new LinkedHashMap<>();
+        try {
+            for (Field field : Config.class.getFields()) {
+                if (!isOption(field)) continue;
+                Object value = field.get(null);
+                values.put(field.getName(), value instanceof List<?> list ? new ArrayList<>(list) : value);
+            }
+        } catch (IllegalAccessException e) {
+            throw new IllegalStateException("Config options must be public", e);
+        }
+        return values;
+    }
+
+    private static Field option(String name) {
+        try {
+            Field field = Config.class.getField(name);
+            return isOption(field) ? field : null;
+        } catch (NoSuchFieldException e) {
+            return null;
+        }
+    }
+
+    private static boolean isOption(Field field) {
+        int modifiers = field.getModifiers();
+        return Modifier.isStatic(modifiers) && !Modifier.isFinal(modifiers) && !Modifier.isTransient(modifiers) && !Modifier.isVolatile(modifiers);
+    }
+
+    /**
+     * Checks if an entry is exempt from being stripped
+     *
+     * @param name The entry name
+     * @return True if the entry is exempt, false otherwise
+     */
+    public boolean isExempt(String name) {
+        return this.exemptMatcher.matches(name);
+    }
+
+    /**
+     * Checks if an entry is excluded from the output
+     *
+     * @param name The entry name
+     * @return True if the entry is excluded, false otherwise
+     */
+    public boolean isExcluded(String name) {
+        return this.excludeMatcher.matches(name);
+    }
+
+    /**
+     * Checks if an entry of a nested jar is exempt. Patterns are matched against both the entry name
+     * & its full path, such as `BOOT-INF/lib/example.jar!/life/savag3/example/Core.class`
+     *
+     * @param prefix The path of the nested jar the entry belongs to `BOOT-INF/lib/example.jar!/`, empty for top-level entries
+     * @param name The entry name
+     * @return True if the entry is exempt, false otherwise
+     */
+    public boolean isExempt(String prefix, String name) {
+        return isExempt(name) || (!prefix.isEmpty() && isExempt(prefix + name));
+    }
+
+    /**
+     * Checks if an entry of a nested jar is excluded. Patterns are matched against both the entry name
+     * & its full path, such as `BOOT-INF/lib/example.jar!/life/savag3/example/Core.class`
+     *
+     * @param prefix The path of the nested jar the entry belongs to `BOOT-INF/lib/example.jar!/`, empty for top-level entries
+     * @param name The entry name
+     * @return True if the entry is excluded, false otherwise
+     */
+    public boolean isExcluded(String prefix, String name) {
+        return isExcluded(name) || (!prefix.isEmpty() && isExcluded(prefix + name));
+    }
+
+    /**
+     * Check if an entry is a jar nested inside the jar being stripped, which should be stripped as well.
+     *
+     * @param name The entry name
+     * @return True if the entry is a nested jar & nested jars are stripped, false otherwise
+     */
+    public boolean isNestedJar(String name) {
+        return this.stripNestedJars && name.toLowerCase(Locale.ROOT).endsWith(".jar");
+    }
+
+    /**
+     * Check if a method or field carrying an annotation is always kept.
+     *
+     * @param descriptor The annotation descriptor `Lme/savag3/example/RetainAPI;`
+     * @return True if the annotation is one of the RETENTION_ANNOTATIONS
+     */
+    public boolean isRetentionAnnotation(String descriptor) {
+        return this.retentionAnnotations.contains(descriptor);
+    }
+
+    /**
+     * Get the compression of a written entry. Nested jars are always stored, so fat jar launchers can read them in place.
+     *
+     * @param name The entry name
+     * @return The compression to write the entry with
+     */
+    public JarWriter.Compression compressionOf(String name) {
+        return isNestedJar(name) ? JarWriter.Compression.STORED : this.outputCompression;
+    }
+
+    /**
+     * Build a fingerprint of every option which changes the stripped output of a class.
+     * Used to key cached classes, so cached classes are never reused once the config changes.
+     */
+    private String fingerprint(List<String> retentionAnnotations) {
+        return String.join("\n",
+                "VERSION=" + Lazy.getVERSION(),
+                "REVISION=" + LazyClassTransformer.REVISION,
+                "EXEMPT=" + this.exempt,
+                "EXCLUDE=" + this.exclude,
+                "INCLUDE_PUB_STATIC_FIELDS=" + this.includePubStaticFields,
+                "INCLUDE_PRI_STATIC_FIELDS=" + this.includePriStaticFields,
+                "INCLUDE_PUB_NON_STATIC_FIELDS=" + this.includePubNonStaticFields,
+                "INCLUDE_PRI_NON_STATIC_FIELDS=" + this.includePriNonStaticFields,
+                "INCLUDE_PRIVATE_METHODS=" + this.includePrivateMethods,
+                "INCLUDE_NATIVE_METHODS=" + this.includeNativeMethods,
+                "RETENTION_ANNOTATIONS=" + retentionAnnotations,
+                "DO_JETBRAINS_CONTRACTS=" + this.doJetbrainsContracts,
+                "COMPACT_CLASSES=" + this.compactClasses
+        );
+    }
+}
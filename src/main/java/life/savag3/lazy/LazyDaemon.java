@@ -0,0 +1,279 @@
+package life.savag3.lazy;
+
+import jdk.net.ExtendedSocketOptions;
+import jdk.net.UnixDomainPrincipal;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintWriter;
+import java.io.Writer;
+import java.net.StandardProtocolFamily;
+import java.net.UnixDomainSocketAddress;
+import java.nio.channels.Channels;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.attribute.PosixFilePermission;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.nio.file.attribute.UserPrincipal;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Long-running Lazy process which accepts strip requests over a local Unix domain socket, so repeated strips
+ * don't pay for JVM startup & a cold JIT each time. A session (worker pool & class cache) is kept for every config
+ * file requested, and only rebuilt once that config file is modified.
+ * <p>
+ * Requests are single lines of tab separated fields, each answered with a single line:
+ * <pre>
+ * STRIP &lt;input&gt; &lt;output&gt; &lt;config&gt;  ->  OK &lt;classes&gt; &lt;copied&gt; &lt;originalSize&gt; &lt;size&gt; &lt;millis&gt; | FAILED &lt;message&gt;
+ * STATS                                 ->  OK &lt;latency summary&gt;
+ * STOP                                  ->  OK
+ * </pre>
+ * Each session strips with its own {@link LazyConfig}, so requests using different configs are handled at the same time.
+ * Requests using the same config are handled one at a time, each jar is still stripped on every worker thread.
+ * <p>
+ * Requests read & write files as the daemon's user, so only that user may connect: the socket is owner only & connections
+ * from processes of another user are closed unanswered.
+ *
+ * @author Jacob C (Savag3life)
+ * @since 2026-10-18
+ */
+public class LazyDaemon {
+
+    private final Path socket; // Path of the Unix domain socket
+    private final LatencyStats stats = new LatencyStats();
+
+    private final Map<String, Session> sessions = new ConcurrentHashMap<>(); // Session of each config, by config path
+
+    private ServerSocketChannel server;
+    private UserPrincipal owner; // User running the daemon, the only one whose requests are accepted
+    private volatile boolean running = true;
+
+    public LazyDaemon(Path socket) {
+        this.socket = socket;
+    }
+
+    /**
+     * The socket used when none is given, inside a directory of the temporary directory only its user can open.
+     *
+     * @return The default socket path
+     */
+    public static Path defaultSocket() {
+        return Path.of(System.getProperty("java.io.tmpdir"), "lazy-" + System.getProperty("user.name"), "lazy.sock");
+    }
+
+    /**
+     * Listen for requests until a STOP request is received.
+     *
+     * @throws IOException If the socket couldn't be bound
+     */
+    public void run() throws IOException {
+        secureDirectory(this.socket.toAbsolutePath().getParent());
+        if (Files.exists(this.socket)) {
+            if (LazyClient.isRunning(this.socket)) throw new IOException("A daemon is already listening on " + this.socket.toAbsolutePath());
+            // Left behind by a daemon which didn't shut down cleanly
+            Files.delete(this.socket);
+        }
+
+        this.server = ServerSocketChannel.open(StandardProtocolFamily.UNIX);
+        this.server.bind(UnixDomainSocketAddress.of(this.socket));
+        restrict(this.socket, PosixFilePermissions.fromString("rw-------"));
+        this.owner = Files.getOwner(this.socket);
+        Log.info("Lazy daemon listening on " + this.socket.toAbsolutePath());
+
+        AtomicInteger counter = new AtomicInteger();
+        ExecutorService connections = Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "Lazy-Daemon-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        try {
+            while (this.running) {
+                SocketChannel channel;
+                try {
+                    channel = this.server.accept();
+                } catch (IOException e) {
+                    // The server socket is closed by a STOP request
+                    if (!this.running) break;
+                    throw e;
+                }
+                if (!isOwner(channel)) continue;
+                connections.submit(() -> handle(channel));
+            }
+        } finally {
+            connections.shutdownNow();
+            this.server.close();
+            Files.deleteIfExists(this.socket);
+            this.sessions.values().forEach(Session::close);
+            Log.info("Lazy daemon stopped. " + this.stats.summary());
+        }
+    }
+
+    /**
+     * Create the directory holding the socket, or check an existing one, so that only the user running the daemon can
+     * reach the socket. The default directory is shared with every user of the temporary directory, so one created
+     * by another user is refused rather than used.
+     */
+    private static void secureDirectory(Path directory) throws IOException {
+        if (directory == null) return;
+        Set<PosixFilePermission> permissions = PosixFilePermissions.fromString("rwx------");
+        if (!Files.exists(directory, LinkOption.NOFOLLOW_LINKS)) {
+            try {
+                Files.createDirectories(directory, PosixFilePermissions.asFileAttribute(permissions));
+            } catch (UnsupportedOperationException e) {
+                Files.createDirectories(directory);
+            }
+            return;
+        }
+        if (!directory.equals(defaultSocket().getParent())) return;
+
+        String user = System.getProperty("user.name");
+        if (!Files.isDirectory(directory, LinkOption.NOFOLLOW_LINKS) || !Files.getOwner(directory, LinkOption.NOFOLLOW_LINKS).getName().equals(user)) {
+            throw new IOException("Socket directory isn't a directory owned by " + user + ". (" + directory + ")");
+        }
+        restrict(directory, permissions);
+    }
+
+    /**
+     * Set the permissions of a file, on file systems which support them.
+     */
+    private static void restrict(Path path, Set<PosixFilePermission> permissions) throws IOException {
+        try {
+            Files.setPosixFilePermissions(path, permissions);
+        } catch (UnsupportedOperationException e) {
+            Log.debug("File permissions aren't supported, relying on the peer check. (" + path + ")");
+        }
+    }
+
+    /**
+     * Check the connecting process runs as the same user as the daemon, closing the connection if it doesn't.
+     * A request can read & write any path the daemon can, so no other user may send one.
+     *
+     * @return True if the connection can be handled
+     */
+    private boolean isOwner(SocketChannel channel) {
+        try {
+            if (!channel.supportedOptions().contains(ExtendedSocketOptions.SO_PEERCRED)) return true;
+            UnixDomainPrincipal peer = channel.getOption(ExtendedSocketOptions.SO_PEERCRED);
+            if (peer.user().getName().equals(this.owner.getName())) return true;
+            Log.warn("Lazy daemon refused a connection from " + peer.user().getName());
+        } catch (IOException e) {
+            Log.warn("Lazy daemon couldn't identify a connection, refusing it. (" + e.getMessage() + ")");
+        }
+
+        try {
+            channel.close();
+        } catch (IOException ignored) {}
+        return false;
+    }
+
+    /**
+     * Answer every request sent on a single connection.
+     *
+     * @param channel The client connection
+     */
+    private void handle(SocketChannel channel) {
+        try (channel;
+             BufferedReader reader = new BufferedReader(new InputStreamReader(Channels.newInputStream(channel), StandardCharsets.UTF_8));
+             Writer writer = Channels.newWriter(channel, StandardCharsets.UTF_8)) {
+            PrintWriter out = new PrintWriter(writer, true);
+
+            String line;
+            while ((line = reader.readLine()) != null) {
+                String[] request = line.split("\t", -1);
+                switch (request[0]) {
+                    case "STRIP" -> {
+                        if (request.length != 4) {
+                            out.println("FAILED\tExpected STRIP <input> <output> <config>");
+                            continue;
+                        }
+                        out.println(strip(new File(request[1]), new File(request[2]), request[3].isEmpty() ? null : request[3]));
+                    }
+                    case "STATS" -> out.println("OK\t" + this.stats.summary());
+                    case "STOP" -> {
+                        out.println("OK");
+                        this.running = false;
+                        this.server.close();
+                        return;
+                    }
+                    default -> out.println("FAILED\tUnknown request " + request[0]);
+                }
+            }
+        } catch (IOException e) {
+            Log.warn("Lazy daemon connection failed. (" + e.getMessage() + ")");
+        }
+    }
+
+    /**
+     * Strip a single jar using the session of the requested config.
+     *
+     * @return The response line
+     */
+    private String strip(File input, File output, String config) {
+        Instant start = Instant.now();
+        File file = new File(config == null ? "config.json" : config);
+        Session session = this.sessions.computeIfAbsent(file.getAbsolutePath(), path -> new Session());
+
+        String response;
+        try {
+            StripResult result = session.strip(file, config, input, output);
+            response = String.join("\t", "OK", String.valueOf(result.classes()), String.valueOf(result.copied()),
+                    String.valueOf(result.originalSize()), String.valueOf(result.size()), String.valueOf(result.millis()));
+        } catch (LazyException e) {
+            Log.error("Failed to strip jar. (" + input.getAbsolutePath() + ") " + e.getMessage(), e.getCause());
+            response = "FAILED\t" + e.getMessage();
+        } catch (RuntimeException e) {
+            Log.error("Failed to strip jar. (" + input.getAbsolutePath() + ")", e);
+            response = "FAILED\t" + e;
+        }
+
+        long millis = Duration.between(start, Instant.now()).toMillis();
+        this.stats.record(millis, response.startsWith("FAILED"));
+        Log.info("Handled request in " + millis + "ms. " + this.stats.summary());
+        return response.replace('\n', ' ');
+    }
+
+    /**
+     * The session of a single config file, rebuilt once the file is modified. Strips using the session are
+     * handled one at a time.
+     */
+    private static final class Session {
+
+        private Lazy lazy; // Null until the first request
+        private String key; // Modification time & size of the config file the session was loaded from
+
+        /**
+         * Strip a single jar, reusing the session if the config file hasn't changed.
+         *
+         * @param file The config file
+         * @param config The path to the config file as requested, or null to use `config.json`
+         */
+        private synchronized StripResult strip(File file, String config, File input, File output) throws LazyException {
+            String key = file.lastModified() + ":" + file.length();
+            if (this.lazy == null || !key.equals(this.key)) {
+                if (this.lazy != null) this.lazy.close();
+                this.lazy = new Lazy(config);
+                // Loading may have written a default config, so key the session on the file as it is now
+                this.key = file.lastModified() + ":" + file.length();
+            }
+            return this.lazy.strip(input, output);
+        }
+
+        private synchronized void close() {
+            if (this.lazy != null) this.lazy.close();
+        }
+    }
+}
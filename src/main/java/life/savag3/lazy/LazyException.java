@@ -0,0 +1,21 @@
+package life.savag3.lazy;
+
+/**
+ * Thrown when Lazy fails to strip a jar as a whole, such as when the input can't be read or the output can't be written.
+ * Failures of single classes are never thrown, those classes are skipped.
+ *
+ * @author Jacob C (Savag3life)
+ * @since 2026-10-18
+ */
+public class LazyException extends Exception {
+
+    private static final long serialVersionUID = 1L;
+
+    public LazyException(String message) {
+        super(message);
+    }
+
+    public LazyException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
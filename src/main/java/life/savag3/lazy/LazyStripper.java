@@ -0,0 +1,373 @@
+package life.savag3.lazy;
+
+import lombok.Getter;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.FilterInputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+import java.util.jar.JarInputStream;
+import java.util.jar.Manifest;
+
+/**
+ * Embeddable stripping API, for build tools which want to strip classes in-process rather than forking Lazy.
+ * Jars can be stripped from disk, from a stream, or from entries already held in memory. Nothing here exits
+ * the JVM, failures are thrown as {@link LazyException}s.
+ * <p>
+ * A stripper is reentrant, any number of threads may strip at once & they share the worker pool. Each stripper strips
+ * with the {@link LazyConfig} it was opened with, so strippers opened with different configs may strip at once.
+ * Logging options are the exception, they apply to the whole JVM & are set by the last stripper opened.
+ *
+ * @author Jacob C (Savag3life)
+ * @since 2026-10-18
+ */
+public final class LazyStripper implements AutoCloseable {
+
+    @Getter private final LazyConfig config; // Options used by every strip of this stripper
+    @Getter private final int threads; // Number of worker threads
+    @Getter private final ClassCache cache; // Cache of previously stripped classes, null when disabled
+    private final ExecutorService workers; // Worker pool used to strip classes
+    private final ExecutorService nested; // Threads coordinating nested jars, which wait on the worker pool
+
+    LazyStripper(LazyConfig config, ClassCache cache) {
+        this.config = config;
+        this.threads = config.getThreads() > 0 ? config.getThreads() : Runtime.getRuntime().availableProcessors();
+        this.cache = cache;
+
+        AtomicInteger counter = new AtomicInteger();
+        this.workers = Executors.newFixedThreadPool(this.threads, runnable -> {
+            Thread thread = new Thread(runnable, "Lazy-Worker-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        AtomicInteger nestedCounter = new AtomicInteger();
+        this.nested = Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "Lazy-Nested-" + nestedCounter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Open a stripper using the options currently set in {@link Config}.
+     *
+     * @return The stripper
+     * @throws LazyException If the configured class cache couldn't be opened
+     */
+    public static LazyStripper open() throws LazyException {
+        return open(LazyConfig.current());
+    }
+
+    /**
+     * Read a config file & open a stripper using it. {@link Config} isn't changed.
+     *
+     * @param config The config file
+     * @return The stripper
+     * @throws LazyException If the config file doesn't exist or is invalid, or the configured class cache couldn't be opened
+     */
+    public static LazyStripper open(Path config) throws LazyException {
+        if (!Files.isRegularFile(config)) throw new LazyException("Config file doesn't exist. (" + config.toAbsolutePath() + ")");
+        return open(LazyConfig.load(config));
+    }
+
+    /**
+     * Open a stripper using a config.
+     *
+     * @param config The config
+     * @return The stripper
+     * @throws LazyException If the configured class cache couldn't be opened
+     */
+    public static LazyStripper open(LazyConfig config) throws LazyException {
+        Log.configure(config);
+
+        if (config.getCacheDirectory() == null || config.getCacheDirectory().isBlank()) return new LazyStripper(config, null);
+        Path directory = Path.of(config.getCacheDirectory());
+        try {
+            return new LazyStripper(config, ClassCache.open(directory, config.getCacheMaxSizeMb() * 1024 * 1024, config.getFingerprint()));
+        } catch (IOException e) {
+            throw new LazyException("Failed to open class cache. (" + directory.toAbsolutePath() + ")", e);
+        }
+    }
+
+    /**
+     * Strip a single class.
+     *
+     * @param bytes The original class bytes
+     * @return The stripped class bytes
+     * @throws LazyException If the class couldn't be stripped
+     */
+    public byte[] stripClass(byte[] bytes) throws LazyException {
+        try {
+            return transform(bytes);
+        } catch (RuntimeException e) {
+            throw new LazyException("Failed to strip class.", e);
+        }
+    }
+
+    /**
+     * Strip a jar on disk into a new jar.
+     *
+     * @param input The input jar
+     * @param output The output jar
+     * @return The summary of the stripped jar
+     * @throws LazyException If the input can't be read or the output can't be written
+     */
+    public StripResult strip(Path input, Path output) throws LazyException {
+        return new StripJob(input.toFile(), output.toFile(), this).run();
+    }
+
+    /**
+     * Strip entries held in memory, applying the same EXEMPT / EXCLUDE & resource rules as a jar.
+     * Classes which can't be stripped are skipped, as they are when stripping a jar.
+     *
+     * @param entries The entry names `life/savag3/example/Core.class` & their content
+     * @return The entries to write to the output, in input order with the manifest first
+     * @throws LazyException If stripping was interrupted
+     */
+    public Map<String, byte[]> strip(Map<String, byte[]> entries) throws LazyException {
+        Map<String, Future<byte[]>> pending = new LinkedHashMap<>();
+        for (Map.Entry<String, byte[]> entry : entries.entrySet()) {
+            if (entry.getKey().equalsIgnoreCase(JarFile.MANIFEST_NAME) && !this.config.isExcluded(entry.getKey())) {
+                pending.put(entry.getKey(), CompletableFuture.completedFuture(entry.getValue()));
+            }
+        }
+        for (Map.Entry<String, byte[]> entry : entries.entrySet()) {
+            if (entry.getKey().equalsIgnoreCase(JarFile.MANIFEST_NAME)) continue;
+            Future<byte[]> result = submit("", entry.getKey(), entry.getValue());
+            if (result != null) pending.put(entry.getKey(), result);
+        }
+
+        Map<String, byte[]> results = new LinkedHashMap<>();
+        try {
+            for (Map.Entry<String, Future<byte[]>> entry : pending.entrySet()) {
+                byte[] bytes = entry.getValue().get();
+                if (bytes != null) results.put(entry.getKey(), bytes);
+            }
+        } catch (InterruptedException | ExecutionException e) {
+            pending.values().forEach(future -> future.cancel(true));
+            if (e instanceof InterruptedException) Thread.currentThread().interrupt();
+            throw new LazyException("Worker failed while processing classes.", e);
+        }
+        return results;
+    }
+
+    /**
+     * Strip a jar read from a stream, writing the stripped jar to another stream as entries are produced.
+     * Neither stream is closed.
+     *
+     * @param input The input jar
+     * @param output Where to write the output jar
+     * @throws LazyException If the input can't be read or the output can't be written
+     */
+    public void strip(InputStream input, OutputStream output) throws LazyException {
+        strip(input, output, "");
+    }
+
+    /**
+     * Strip a jar read from a stream, which may be nested inside another jar.
+     *
+     * @param prefix The path of the nested jar `BOOT-INF/lib/example.jar!/`, empty for top-level jars
+     */
+    private void strip(InputStream input, OutputStream output, String prefix) throws LazyException {
+        int inFlightLimit = this.config.getInFlightClasses() > 0 ? this.config.getInFlightClasses() : this.threads * 8;
+        Deque<Map.Entry<String, Future<byte[]>>> inFlight = new ArrayDeque<>();
+
+        try (JarInputStream jar = new JarInputStream(new KeepOpenInputStream(input), false);
+             JarWriter writer = new JarWriter(Channels.newChannel(new KeepOpenOutputStream(output)), this.config.isReproducibleOutput())) {
+            Manifest manifest = jar.getManifest();
+            if (manifest != null) {
+                ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+                manifest.write(bytes);
+                writer.write(JarWriter.compress(JarFile.MANIFEST_NAME, bytes.toByteArray(), this.config.getOutputCompression(), this.config.getCompressionLevel()));
+            }
+
+            JarEntry entry;
+            while ((entry = jar.getNextJarEntry()) != null) {
+                if (entry.isDirectory()) continue;
+                Future<byte[]> result = submit(prefix, entry.getName(), jar.readAllBytes());
+                if (result != null) inFlight.add(Map.entry(entry.getName(), result));
+
+                // Keeps the output in input order & bounds the number of entries held in memory
+                if (inFlight.size() >= inFlightLimit) write(writer, inFlight.poll());
+            }
+
+            while (!inFlight.isEmpty()) write(writer, inFlight.poll());
+        } catch (IOException e) {
+            throw new LazyException("Failed to strip jar stream." + (prefix.isEmpty() ? "" : " (" + prefix + ")"), e);
+        } catch (InterruptedException | ExecutionException e) {
+            inFlight.forEach(pending -> pending.getValue().cancel(true));
+            if (e instanceof InterruptedException) Thread.currentThread().interrupt();
+            throw new LazyException("Worker failed while processing classes.", e);
+        }
+    }
+
+    /**
+     * Stop the worker pool & trim the class cache. The stripper can't be used afterwards.
+     */
+    @Override
+    public void close() {
+        this.nested.shutdownNow();
+        this.workers.shutdownNow();
+        if (this.cache != null) this.cache.evict();
+        Log.flush();
+    }
+
+    /**
+     * Submit a task to the worker pool.
+     *
+     * @param task The task
+     * @return The pending result of the task
+     */
+    <T> Future<T> submit(Callable<T> task) {
+        return this.workers.submit(task);
+    }
+
+    /**
+     * Strip a jar nested inside the jar being stripped, entirely in memory. Nested jars are coordinated on their own
+     * threads rather than the worker pool, so a worker never waits on classes queued behind it. Like classes,
+     * a nested jar which can't be stripped is skipped.
+     *
+     * @param path The path of the nested jar `BOOT-INF/lib/example.jar`, including the path of any jar it's nested in
+     * @param read Reads the nested jar
+     * @return The pending stripped jar, completing with null if the nested jar is skipped
+     */
+    CompletableFuture<byte[]> stripNested(String path, Callable<byte[]> read) {
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                Log.trace("Processing nested jar %s", path);
+                ByteArrayOutputStream output = new ByteArrayOutputStream();
+                strip(new ByteArrayInputStream(read.call()), output, path + "!/");
+                return output.toByteArray();
+            } catch (Exception e) {
+                Log.warn("Failed while processing nested jar, skipping it: " + path);
+                Log.debug("Failed while processing nested jar: " + path, e);
+                return null;
+            }
+        }, this.nested);
+    }
+
+    /**
+     * Strip a class, reusing the cached result if the class has been stripped before.
+     *
+     * @param bytes The original class bytes
+     * @return The stripped class bytes, or the original array if stripping wouldn't change the class
+     */
+    byte[] transform(byte[] bytes) {
+        return transform(bytes, null, null);
+    }
+
+    /**
+     * Strip a class, reusing the cached result if the class has been stripped before. Classes compacted while being
+     * stripped record their size before & after compaction, cached classes were compacted by an earlier run & are
+     * only counted as cache hits.
+     *
+     * @param bytes The original class bytes
+     * @param name The class entry name, recorded with its compaction
+     * @param metrics The metrics of the jar to record compaction & cache hits in, or null
+     * @return The stripped class bytes, or the original array if stripping wouldn't change the class
+     */
+    byte[] transform(byte[] bytes, String name, StripMetrics metrics) {
+        // Classes which wouldn't change skip ASM & the cache entirely
+        if (!ClassPreScan.needsStripping(bytes, this.config)) return bytes;
+
+        // Only strip the class if it isn't already cached
+        String key = this.cache == null ? null : this.cache.key(bytes);
+        if (key != null) {
+            byte[] cached = this.cache.get(key);
+            if (cached != null) {
+                if (metrics != null) metrics.recordCacheHit();
+                return cached;
+            }
+        }
+
+        LazyClassTransformer transformer = new LazyClassTransformer(bytes, this.config);
+        byte[] stripped = transformer.strip();
+        if (metrics != null && transformer.getUncompactedSize() != -1) metrics.recordCompaction(name, transformer.getUncompactedSize(), stripped.length);
+        if (key != null) this.cache.put(key, stripped);
+        return stripped;
+    }
+
+    /**
+     * Decide what happens to a single entry, submitting classes which need stripping to the worker pool.
+     *
+     * @return The pending content to write, or null if the entry isn't written
+     */
+    private Future<byte[]> submit(String prefix, String name, byte[] bytes) {
+        if (PackageUtils.isSignature(name) || this.config.isExcluded(prefix, name)) return null;
+
+        if (this.config.isNestedJar(name) && !this.config.isExempt(prefix, name)) return stripNested(prefix + name, () -> bytes);
+        if (!name.endsWith(".class")) {
+            return this.config.isIncludeResources() ? CompletableFuture.completedFuture(bytes) : null;
+        }
+        if (this.config.isExempt(prefix, name)) return CompletableFuture.completedFuture(bytes);
+
+        return this.workers.submit(() -> {
+            try {
+                return transform(bytes);
+            } catch (Exception e) {
+                Log.warn("Failed while processing class, skipping it: " + name);
+                Log.debug("Failed while processing class: " + name, e);
+                return null;
+            }
+        });
+    }
+
+    private void write(JarWriter writer, Map.Entry<String, Future<byte[]>> pending) throws IOException, InterruptedException, ExecutionException {
+        byte[] bytes = pending.getValue().get();
+        if (bytes == null) return;
+
+        String name = pending.getKey();
+        writer.write(JarWriter.compress(name, bytes, this.config.compressionOf(name), this.config.getCompressionLevel()));
+    }
+
+    /**
+     * Input stream which leaves the caller's stream open.
+     */
+    private static final class KeepOpenInputStream extends FilterInputStream {
+        private KeepOpenInputStream(InputStream in) {
+            super(in);
+        }
+
+        @Override
+        public void close() {}
+    }
+
+    /**
+     * Output stream which leaves the caller's stream open, only flushing it once the jar is written.
+     */
+    private static final class KeepOpenOutputStream extends FilterOutputStream {
+        private KeepOpenOutputStream(OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(byte[] bytes, int offset, int length) throws IOException {
+            this.out.write(bytes, offset, length);
+        }
+
+        @Override
+        public void close() throws IOException {
+            this.out.flush();
+        }
+    }
+}
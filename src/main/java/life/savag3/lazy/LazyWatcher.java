@@ -0,0 +1,697 @@
+package life.savag3.lazy;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.SortedSet;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
+import java.util.jar.JarFile;
+import java.util.zip.CRC32;
+
+/**
+ * Keeps a stripped output up to date while the input changes, re-stripping only the entries which changed.
+ * Exploded jars (class directories) are watched for file system events, jars are polled & compared by the CRC of each entry.
+ * Bursts of changes, such as a compiler writing a whole package, are gathered until the input has been quiet for
+ * {@link Config#WATCH_DEBOUNCE_MILLIS} & then stripped together.
+ * <p>
+ * Entries removed from the input are removed from the output. Classes are stripped with the same rules as a full run,
+ * except PRUNE_UNREACHABLE which needs the whole jar & is ignored. With API_INDEX set, the API index is updated with them.
+ * <p>
+ * Nothing but the names & CRCs of the input entries is held between updates. An output jar is rebuilt from the previous
+ * output, copying the compressed bytes of every entry which didn't change, so only changed entries are stripped & compressed again.
+ *
+ * @author Jacob C (Savag3life)
+ * @since 2026-10-18
+ */
+public class LazyWatcher {
+
+    private static final long BATCH_BYTES = 32L * 1024 * 1024; // Input bytes read before a batch of updated entries is stripped
+
+    private final LazyStripper stripper;
+    private final Path input;
+    private final Path output;
+    private final boolean directoryOutput; // True if the output is an exploded jar, written file by file
+
+    private final NavigableMap<String, Long> inputs = new TreeMap<>(); // Input entries at the last update, with their CRC (jars only)
+    private final ApiIndex apiIndex; // API of the output, null unless API_INDEX is set
+    private boolean stripped; // True once the whole input was stripped to the output, so the previous output can be kept
+
+    private WatchService watcher;
+    private final Map<WatchKey, Path> keys = new HashMap<>(); // Watched directories of the input
+    private volatile boolean running = true;
+
+    /**
+     * @param stripper The stripper used to strip changed entries
+     * @param input The input jar or directory
+     * @param output The output jar or directory
+     */
+    public LazyWatcher(LazyStripper stripper, Path input, Path output) {
+        this.stripper = stripper;
+        this.input = input.toAbsolutePath().normalize();
+        this.output = output.toAbsolutePath().normalize();
+        this.directoryOutput = StripJob.isDirectory(this.output.toFile());
+        this.apiIndex = stripper.getConfig().isApiIndex() ? ApiIndex.open(ApiIndex.pathOf(this.output)) : null;
+    }
+
+    /**
+     * Strip the whole input, then keep the output up to date until {@link #stop()} is called or the thread is interrupted.
+     *
+     * @throws LazyException If the input can't be watched or the output can't be written
+     */
+    public void run() throws LazyException {
+        if (!Files.exists(this.input)) throw new LazyException("Input doesn't exist. (" + this.input + ")");
+        if (Files.isDirectory(this.input) && this.output.startsWith(this.input)) {
+            throw new LazyException("Output can't be inside the watched input. (" + this.output + ")");
+        }
+
+        try {
+            if (Files.isDirectory(this.input)) {
+                watchDirectory();
+            } else {
+                pollJar();
+            }
+        } catch (IOException e) {
+            if (this.running) throw new LazyException("Failed while watching input. (" + this.input + ")", e);
+        } catch (InterruptedException | ClosedWatchServiceException e) {
+            if (e instanceof InterruptedException) Thread.currentThread().interrupt();
+        }
+        Log.info("Stopped watching " + this.input);
+    }
+
+    /**
+     * Stop watching. Safe to call from any thread, an update already running is finished first.
+     */
+    public void stop() {
+        this.running = false;
+        try {
+            if (this.watcher != null) this.watcher.close();
+        } catch (IOException ignored) {}
+    }
+
+    /**
+     * Watch an exploded jar. Every directory is registered, directories created later are registered as they appear.
+     */
+    private void watchDirectory() throws IOException, InterruptedException, LazyException {
+        this.watcher = FileSystems.getDefault().newWatchService();
+        Set<String> changed = new HashSet<>();
+        register(this.input, changed);
+        update(changed);
+        Log.info("Watching " + this.input + " for changes");
+
+        while (this.running) {
+            WatchKey key = this.watcher.take();
+            changed.clear();
+            // Gather events until the input has been quiet for the debounce window
+            while (key != null) {
+                if (!collect(key, changed)) {
+                    // Events were lost, compare the whole input instead
+                    changed.add("");
+                }
+                key = this.watcher.poll(this.stripper.getConfig().getWatchDebounceMillis(), TimeUnit.MILLISECONDS);
+            }
+
+            if (changed.remove("")) {
+                try (JarIndex index = JarIndex.of(this.input)) {
+                    for (JarIndex.Entry entry : index.getEntries()) changed.add(entry.name());
+                }
+                changed.addAll(this.inputs.keySet());
+            }
+            update(changed);
+        }
+    }
+
+    /**
+     * Register a directory & every directory under it, adding the files found to the changed entries.
+     */
+    private void register(Path directory, Set<String> changed) throws IOException {
+        Files.walkFileTree(directory, new SimpleFileVisitor<>() {
+            @Override
+            public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attributes) throws IOException {
+                keys.put(dir.register(watcher, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY, StandardWatchEventKinds.ENTRY_DELETE), dir);
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attributes) {
+                if (attributes.isRegularFile()) changed.add(name(file));
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult visitFileFailed(Path file, IOException e) {
+                // Removed while being walked, the delete event follows
+                return FileVisitResult.CONTINUE;
+            }
+        });
+    }
+
+    /**
+     * Add the entries named by the events of a key to the changed entries.
+     *
+     * @return False if events overflowed & some changes weren't reported
+     */
+    private boolean collect(WatchKey key, Set<String> changed) throws IOException {
+        Path directory = this.keys.get(key);
+        boolean complete = directory != null;
+        for (WatchEvent<?> event : key.pollEvents()) {
+            if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                complete = false;
+                continue;
+            }
+            if (directory == null) continue;
+
+            Path path = directory.resolve((Path) event.context());
+            if (event.kind() == StandardWatchEventKinds.ENTRY_CREATE && Files.isDirectory(path)) {
+                register(path, changed);
+            } else if (event.kind() == StandardWatchEventKinds.ENTRY_DELETE) {
+                // A deleted directory takes every entry under it with it
+                String name = name(path);
+                changed.add(name);
+                changed.addAll(this.inputs.subMap(name + "/", name + "0").keySet());
+            } else if (!Files.isDirectory(path)) {
+                changed.add(name(path));
+            }
+        }
+
+        if (!key.reset()) this.keys.remove(key);
+        return complete;
+    }
+
+    /**
+     * Find the added, changed & removed files of the exploded jar, then strip them. Files are only read once they're stripped.
+     *
+     * @param changed The names of the changed entries
+     */
+    private void update(Set<String> changed) throws LazyException {
+        SortedSet<String> updated = new TreeSet<>();
+        Set<String> deleted = new HashSet<>();
+        for (String name : changed) {
+            Path path = this.input.resolve(name);
+            if (Files.isRegularFile(path)) {
+                updated.add(name);
+                this.inputs.put(name, 0L);
+            } else if (!Files.exists(path) && this.inputs.remove(name) != null) {
+                deleted.add(name);
+            }
+        }
+        if (isOutputLost()) updated.addAll(this.inputs.keySet());
+
+        try (Input source = new Input(null)) {
+            apply(updated, deleted, source);
+        } catch (IOException e) {
+            throw new LazyException("Failed to update output. (" + this.output + ")", e);
+        }
+    }
+
+    /**
+     * Poll a jar, comparing the CRC of each entry whenever the jar's size or modification time changes.
+     */
+    private void pollJar() throws IOException, InterruptedException, LazyException {
+        Stamp stamp = null;
+        while (this.running) {
+            Stamp current = Stamp.of(this.input);
+            if (current != null && !current.equals(stamp)) {
+                // Wait for the jar to stop changing, so a jar still being written isn't read
+                Thread.sleep(this.stripper.getConfig().getWatchDebounceMillis());
+                if (!current.equals(Stamp.of(this.input))) continue;
+
+                try {
+                    updateJar();
+                    if (stamp == null) Log.info("Watching " + this.input + " for changes");
+                    stamp = current;
+                } catch (IOException e) {
+                    Log.warn("Failed to update from changed jar, retrying: " + this.input + " (" + e.getMessage() + ")");
+                }
+            }
+            Thread.sleep(this.stripper.getConfig().getWatchPollMillis());
+        }
+    }
+
+    /**
+     * Strip the entries of the jar which were added or changed since the last update.
+     */
+    private void updateJar() throws IOException, LazyException {
+        SortedSet<String> updated = new TreeSet<>();
+        Set<String> deleted = new HashSet<>(this.inputs.keySet());
+        Map<String, Long> crcs = new HashMap<>();
+
+        try (Input source = new Input(JarIndex.open(this.input.toFile()))) {
+            boolean lost = isOutputLost();
+            for (JarIndex.Entry entry : source.index.getEntries()) {
+                if (entry.isDirectory()) continue;
+                deleted.remove(entry.name());
+                crcs.put(entry.name(), entry.crc());
+
+                Long previous = this.inputs.get(entry.name());
+                if (lost || previous == null || previous != entry.crc()) updated.add(entry.name());
+            }
+            apply(updated, deleted, source);
+        }
+
+        // Only recorded once the output was updated, so a failed update is retried in full
+        this.inputs.keySet().removeAll(deleted);
+        this.inputs.putAll(crcs);
+    }
+
+    /**
+     * @return True if the output jar was removed since it was written, so it has to be stripped again in full
+     */
+    private boolean isOutputLost() {
+        if (this.directoryOutput || !this.stripped || Files.isRegularFile(this.output)) return false;
+        Log.info("Output was removed, stripping the whole input again. (" + this.output + ")");
+        this.stripped = false;
+        return true;
+    }
+
+    /**
+     * Strip the updated entries & bring the output up to date.
+     *
+     * @param updated The added & changed entries, in name order
+     * @param deleted The entries removed from the input
+     * @param source Reads the updated entries
+     */
+    private void apply(SortedSet<String> updated, Set<String> deleted, Input source) throws IOException, LazyException {
+        if (updated.isEmpty() && deleted.isEmpty()) return;
+        long start = System.nanoTime();
+
+        Update update = this.directoryOutput ? new DirectoryUpdate(source) : new JarUpdate(source);
+        update.run(updated, deleted);
+        // The index is written after the first pass even if the output was already up to date, it may be missing or stale
+        if (this.apiIndex != null && (update.isChanged() || !this.stripped)) this.apiIndex.write(ApiIndex.pathOf(this.output));
+        this.stripped = true;
+
+        if (Log.isEnabled(Log.Level.INFO)) {
+            Log.info("Updated %d, removed %d of %d changed entries in %d ms", update.written, update.dropped, updated.size() + deleted.size(),
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        }
+    }
+
+    private String name(Path path) {
+        return this.input.relativize(path).toString().replace(path.getFileSystem().getSeparator(), "/");
+    }
+
+    /**
+     * Reads the updated entries, from the input jar through its index or from the files of an exploded jar.
+     */
+    private final class Input implements Closeable {
+
+        private final JarIndex index; // Index of the input jar, null for exploded jars
+        private final Map<String, JarIndex.Entry> entries = new HashMap<>(); // Entries of the input jar, by name
+        private JarFile jarFile; // Opened for entries the index can't read
+
+        private Input(JarIndex index) {
+            this.index = index;
+            if (index != null) {
+                for (JarIndex.Entry entry : index.getEntries()) this.entries.put(entry.name(), entry);
+            }
+        }
+
+        /**
+         * @return The entry content, or null if it no longer exists
+         */
+        private byte[] read(String name) throws IOException {
+            if (this.index == null) {
+                try {
+                    return Files.readAllBytes(input.resolve(name));
+                } catch (NoSuchFileException e) {
+                    return null;
+                }
+            }
+
+            JarIndex.Entry entry = this.entries.get(name);
+            if (entry == null) return null;
+            if (this.index.canRead(entry)) return this.index.read(entry);
+            if (this.jarFile == null) this.jarFile = new JarFile(input.toFile(), false);
+            try (InputStream in = this.jarFile.getInputStream(this.jarFile.getJarEntry(name))) {
+                return in.readAllBytes();
+            }
+        }
+
+        /**
+         * Find an entry which a full run copies to the output untouched, so its compressed bytes can be copied as-is.
+         *
+         * @return The entry of the input jar, or null if the entry is stripped or isn't written at all
+         */
+        private JarIndex.Entry passthrough(String name) {
+            JarIndex.Entry entry = this.entries.get(name);
+            if (entry == null || !entry.isRaw() || name.equals(JarFile.MANIFEST_NAME)) return null;
+
+            LazyConfig config = stripper.getConfig();
+            if (PackageUtils.isSignature(name) || config.isExcluded(name) || config.isNestedJar(name)) return null;
+            boolean copied = name.endsWith(".class") ? config.isExempt(name) : config.isIncludeResources();
+            return copied ? entry : null;
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                if (this.jarFile != null) this.jarFile.close();
+            } finally {
+                if (this.index != null) this.index.close();
+            }
+        }
+    }
+
+    /**
+     * Brings the output up to date with the updated entries. Entries are read & stripped in batches of at most
+     * {@link #BATCH_BYTES}, so a large change never holds the whole input in memory, & written in the order they were added.
+     */
+    private abstract class Update {
+
+        protected final Input source;
+        protected int written; // Entries added to the output or changed
+        protected int dropped; // Entries removed from the output
+
+        private final List<String> pending = new ArrayList<>(); // Names waiting for the batch to be stripped
+        private final Map<String, byte[]> read = new LinkedHashMap<>(); // Content of the pending entries which were read
+        private final Set<String> unreadable = new HashSet<>(); // Pending entries which couldn't be read this time
+        private long readBytes;
+
+        private Update(Input source) {
+            this.source = source;
+        }
+
+        abstract void run(SortedSet<String> updated, Set<String> deleted) throws IOException, LazyException;
+
+        boolean isChanged() {
+            return this.written > 0 || this.dropped > 0;
+        }
+
+        /**
+         * Queue an updated entry, stripping the batch once it's full.
+         */
+        void add(String name) throws IOException, LazyException {
+            this.pending.add(name);
+            if (passthrough(name) != null) return;
+
+            try {
+                byte[] bytes = this.source.read(name);
+                if (bytes != null) {
+                    this.read.put(name, bytes);
+                    this.readBytes += bytes.length;
+                }
+            } catch (IOException e) {
+                // A jar is read again in full on the next poll, a file still being written is picked up by its next event
+                if (this.source.index != null) throw e;
+                Log.debug("Failed to read changed file, skipping it: " + name, e);
+                this.unreadable.add(name);
+            }
+            if (this.readBytes >= BATCH_BYTES) flush();
+        }
+
+        /**
+         * Strip the pending entries & write them to the output.
+         */
+        void flush() throws IOException, LazyException {
+            if (this.pending.isEmpty()) return;
+            Map<String, byte[]> stripped = stripper.strip(this.read);
+            for (String name : this.pending) {
+                JarIndex.Entry entry = passthrough(name);
+                if (this.unreadable.contains(name)) {
+                    keep(name);
+                } else if (entry != null) {
+                    copy(name, entry);
+                } else if (stripped.containsKey(name)) {
+                    put(name, stripped.get(name));
+                    if (apiIndex != null && name.endsWith(".class")) apiIndex.add(name, stripped.get(name));
+                } else {
+                    // Excluded entries, entries no longer in the input & classes which failed to strip aren't written
+                    remove(name);
+                    if (apiIndex != null) apiIndex.remove(name);
+                }
+            }
+
+            this.pending.clear();
+            this.read.clear();
+            this.unreadable.clear();
+            this.readBytes = 0;
+        }
+
+        /**
+         * @return The input entry copied to the output as-is, or null if the entry is read & stripped
+         */
+        JarIndex.Entry passthrough(String name) {
+            return null;
+        }
+
+        abstract void put(String name, byte[] bytes) throws IOException;
+
+        abstract void remove(String name) throws IOException;
+
+        /**
+         * Leave the output entry as it was, used when the input entry couldn't be read.
+         */
+        abstract void keep(String name) throws IOException;
+
+        void copy(String name, JarIndex.Entry entry) throws IOException {
+            throw new IllegalStateException("Entry can't be copied raw: " + name);
+        }
+    }
+
+    /**
+     * Writes updated entries straight to the files of an exploded output, leaving every other file untouched.
+     */
+    private final class DirectoryUpdate extends Update {
+
+        private DirectoryUpdate(Input source) {
+            super(source);
+        }
+
+        @Override
+        void run(SortedSet<String> updated, Set<String> deleted) throws IOException, LazyException {
+            for (String name : updated) add(name);
+            flush();
+            for (String name : deleted) {
+                remove(name);
+                if (apiIndex != null) apiIndex.remove(name);
+            }
+        }
+
+        @Override
+        void put(String name, byte[] bytes) throws IOException {
+            Path path = resolve(name);
+            if (Files.isRegularFile(path) && Files.size(path) == bytes.length && Arrays.equals(Files.readAllBytes(path), bytes)) return;
+            Log.trace(" .. Writing %s", name);
+            Files.createDirectories(path.getParent());
+            try (OutputStream out = Files.newOutputStream(path)) {
+                out.write(bytes);
+            }
+            this.written++;
+        }
+
+        /**
+         * Remove an output file. Directories left empty are removed with it.
+         */
+        @Override
+        void remove(String name) throws IOException {
+            Path path = resolve(name);
+            if (!Files.deleteIfExists(path)) return;
+            Log.trace(" .. Removing %s", name);
+            for (Path parent = path.getParent(); !parent.equals(output); parent = parent.getParent()) {
+                try (var children = Files.list(parent)) {
+                    if (children.findAny().isPresent()) break;
+                }
+                Files.delete(parent);
+            }
+            this.dropped++;
+        }
+
+        @Override
+        void keep(String name) {}
+
+        private Path resolve(String name) throws IOException {
+            Path path = output.resolve(name).normalize();
+            if (!path.startsWith(output) || path.equals(output)) throw new IOException("Entry is outside of the output directory: " + name);
+            return path;
+        }
+    }
+
+    /**
+     * Writes a new output jar next to the previous one, replacing it in one move so readers never see a partial jar.
+     * Entries which weren't updated are copied from the previous output without being decompressed, only updated
+     * entries are stripped & compressed again. Input entries a full run copies untouched are copied from the input the same way.
+     */
+    private final class JarUpdate extends Update {
+
+        private final Map<String, JarIndex.Entry> previous = new HashMap<>(); // Entries of the previous output, by name
+        private final Set<String> removed = new HashSet<>(); // Previous entries not written to the new output yet
+        private JarIndex previousIndex; // Index of the previous output, null if there's none
+        private JarWriter writer;
+
+        private JarUpdate(Input source) {
+            super(source);
+        }
+
+        @Override
+        void run(SortedSet<String> updated, Set<String> deleted) throws IOException, LazyException {
+            Path parent = output.getParent();
+            if (parent != null) Files.createDirectories(parent);
+            Path written = Files.createTempFile(parent, output.getFileName().toString(), ".tmp");
+            try {
+                try {
+                    write(written, updated, deleted);
+                } finally {
+                    // Closed before the move, which can't replace a jar still mapped on some platforms
+                    if (this.previousIndex != null) this.previousIndex.close();
+                }
+
+                this.dropped = this.removed.size();
+                if (apiIndex != null) this.removed.forEach(apiIndex::remove);
+                // An unchanged output is left alone, the new jar is thrown away
+                if (isChanged() || !Files.isRegularFile(output)) {
+                    try {
+                        Files.move(written, output, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                    } catch (AtomicMoveNotSupportedException e) {
+                        Files.move(written, output, StandardCopyOption.REPLACE_EXISTING);
+                    }
+                }
+            } finally {
+                Files.deleteIfExists(written);
+            }
+        }
+
+        private void write(Path written, SortedSet<String> updated, Set<String> deleted) throws IOException, LazyException {
+            try {
+                if (Files.isRegularFile(output)) this.previousIndex = JarIndex.open(output.toFile());
+            } catch (IOException e) {
+                Log.debug("Ignoring unreadable output jar, writing it again in full. (" + output + ")", e);
+            }
+            if (this.previousIndex != null) {
+                for (JarIndex.Entry entry : this.previousIndex.getEntries()) this.previous.put(entry.name(), entry);
+            }
+            this.removed.addAll(this.previous.keySet());
+
+            // Until the whole input was stripped once, the previous output is only compared against, never kept
+            SortedSet<String> names = new TreeSet<>(updated);
+            if (stripped) {
+                for (String name : this.previous.keySet()) {
+                    if (!deleted.contains(name)) names.add(name);
+                }
+            }
+
+            LazyConfig config = stripper.getConfig();
+            try (JarWriter writer = new JarWriter(FileChannel.open(written, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING), config.isReproducibleOutput())) {
+                this.writer = writer;
+                // The manifest is written first, where jar tools look for it
+                if (names.remove(JarFile.MANIFEST_NAME)) {
+                    next(JarFile.MANIFEST_NAME, updated);
+                    flush();
+                }
+                for (String name : names) next(name, updated);
+                flush();
+            }
+        }
+
+        /**
+         * Queue an updated entry, or copy an entry which wasn't updated from the previous output.
+         */
+        private void next(String name, Set<String> updated) throws IOException, LazyException {
+            if (updated.contains(name)) {
+                add(name);
+            } else {
+                // Keeps the output in name order, entries of the pending batch come first
+                flush();
+                keep(name);
+            }
+        }
+
+        @Override
+        JarIndex.Entry passthrough(String name) {
+            return this.source.passthrough(name);
+        }
+
+        @Override
+        void put(String name, byte[] bytes) throws IOException {
+            JarIndex.Entry entry = this.previous.get(name);
+            if (entry != null && isSame(entry, bytes)) {
+                keep(name);
+                return;
+            }
+
+            LazyConfig config = stripper.getConfig();
+            JarWriter.Compression compression = name.equals(JarFile.MANIFEST_NAME) ? config.getOutputCompression() : config.compressionOf(name);
+            Log.trace(" .. Writing %s", name);
+            this.writer.write(JarWriter.compress(name, bytes, compression, config.getCompressionLevel()));
+            this.removed.remove(name);
+            this.written++;
+        }
+
+        @Override
+        void copy(String name, JarIndex.Entry entry) throws IOException {
+            JarIndex.Entry previous = this.previous.get(name);
+            this.source.index.transferTo(entry, this.writer);
+            if (!this.removed.remove(name) || previous.crc() != entry.crc() || previous.size() != entry.size()) this.written++;
+
+            if (apiIndex != null && name.endsWith(".class")) {
+                try {
+                    apiIndex.add(name, entry.crc(), entry.size(), () -> this.source.read(name));
+                } catch (Exception e) {
+                    throw e instanceof IOException io ? io : new IOException("Failed to index class: " + name, e);
+                }
+            }
+        }
+
+        @Override
+        void remove(String name) {}
+
+        @Override
+        void keep(String name) throws IOException {
+            JarIndex.Entry entry = this.previous.get(name);
+            if (entry == null || !entry.isRaw()) return;
+            this.previousIndex.transferTo(entry, this.writer);
+            this.removed.remove(name);
+        }
+
+        private boolean isSame(JarIndex.Entry entry, byte[] bytes) throws IOException {
+            if (entry.size() != bytes.length || !entry.isRaw() || !this.previousIndex.canRead(entry)) return false;
+            CRC32 crc = new CRC32();
+            crc.update(bytes);
+            return crc.getValue() == entry.crc() && Arrays.equals(this.previousIndex.read(entry), bytes);
+        }
+    }
+
+    /**
+     * Size & modification time of a polled jar, checked before the jar is read.
+     */
+    private record Stamp(long size, FileTime modified) {
+
+        private static Stamp of(Path path) throws IOException {
+            try {
+                BasicFileAttributes attributes = Files.readAttributes(path, BasicFileAttributes.class);
+                return new Stamp(attributes.size(), attributes.lastModifiedTime());
+            } catch (NoSuchFileException e) {
+                // Between a build deleting & rewriting the jar
+                return null;
+            }
+        }
+    }
+}
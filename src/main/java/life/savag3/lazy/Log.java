@@ -0,0 +1,178 @@
+package life.savag3.lazy;
+
+import lombok.experimental.UtilityClass;
+
+import java.io.PrintStream;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Leveled logging for Lazy. Lines are handed to a bounded buffer & written to the console by a single background thread,
+ * so worker threads never wait on the console. Messages are only formatted on the background thread, and nothing is
+ * allocated for levels which aren't enabled. Lines below WARN are dropped (& counted) rather than waiting when the buffer is full.
+ *
+ * @author Jacob C (Savag3life)
+ * @since 2026-10-18
+ */
+@UtilityClass
+public final class Log {
+
+    private static final int BUFFER = 8192; // Maximum number of lines waiting to be written
+
+    public enum Level {
+        ERROR, WARN, INFO, DEBUG, TRACE
+    }
+
+    private static final BlockingQueue<Line> queue = new ArrayBlockingQueue<>(BUFFER);
+    private static final AtomicLong dropped = new AtomicLong();
+    private static final PrintStream out = System.out;
+    private static volatile Level level = Level.INFO;
+
+    static {
+        Thread writer = new Thread(Log::drain, "Lazy-Log");
+        writer.setDaemon(true);
+        writer.start();
+
+        // Write anything still buffered when the JVM exits
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> flush(1, TimeUnit.SECONDS), "Lazy-Log-Flush"));
+    }
+
+    /**
+     * Set the level from a config. `VERBOSE` raises the level to at least DEBUG.
+     * The level applies to the whole JVM, so the last config given wins.
+     *
+     * @param config The config
+     */
+    public static void configure(LazyConfig config) {
+        Level configured = config.getLogLevel() == null ? Level.INFO : config.getLogLevel();
+        level = config.isVerbose() && configured.compareTo(Level.DEBUG) < 0 ? Level.DEBUG : configured;
+    }
+
+    public static boolean isEnabled(Level check) {
+        return check.compareTo(level) <= 0;
+    }
+
+    public static void error(String message) {
+        if (isEnabled(Level.ERROR)) enqueue(Level.ERROR, message, null, null);
+    }
+
+    public static void error(String message, Throwable error) {
+        if (isEnabled(Level.ERROR)) enqueue(Level.ERROR, message, null, error);
+    }
+
+    public static void warn(String message) {
+        if (isEnabled(Level.WARN)) enqueue(Level.WARN, message, null, null);
+    }
+
+    public static void warn(String message, Throwable error) {
+        if (isEnabled(Level.WARN)) enqueue(Level.WARN, message, null, error);
+    }
+
+    public static void info(String message) {
+        if (isEnabled(Level.INFO)) enqueue(Level.INFO, message, null, null);
+    }
+
+    public static void info(String format, Object arg) {
+        if (isEnabled(Level.INFO)) enqueue(Level.INFO, format, new Object[]{arg}, null);
+    }
+
+    public static void info(String format, Object arg0, Object arg1) {
+        if (isEnabled(Level.INFO)) enqueue(Level.INFO, format, new Object[]{arg0, arg1}, null);
+    }
+
+    public static void info(String format, Object... args) {
+        if (isEnabled(Level.INFO)) enqueue(Level.INFO, format, args, null);
+    }
+
+    public static void debug(String message) {
+        if (isEnabled(Level.DEBUG)) enqueue(Level.DEBUG, message, null, null);
+    }
+
+    public static void debug(String format, Object arg) {
+        if (isEnabled(Level.DEBUG)) enqueue(Level.DEBUG, format, new Object[]{arg}, null);
+    }
+
+    public static void debug(String format, Object arg0, Object arg1) {
+        if (isEnabled(Level.DEBUG)) enqueue(Level.DEBUG, format, new Object[]{arg0, arg1}, null);
+    }
+
+    public static void debug(String message, Throwable error) {
+        if (isEnabled(Level.DEBUG)) enqueue(Level.DEBUG, message, null, error);
+    }
+
+    public static void trace(String format, Object arg) {
+        if (isEnabled(Level.TRACE)) enqueue(Level.TRACE, format, new Object[]{arg}, null);
+    }
+
+    public static void trace(String format, Object... args) {
+        if (isEnabled(Level.TRACE)) enqueue(Level.TRACE, format, args, null);
+    }
+
+    /**
+     * Wait for every buffered line to be written.
+     */
+    public static void flush() {
+        flush(10, TimeUnit.SECONDS);
+    }
+
+    private static void flush(long timeout, TimeUnit unit) {
+        Line marker = new Line(null, null, null, null, new CountDownLatch(1));
+        try {
+            if (!queue.offer(marker, timeout, unit)) return;
+            marker.flushed().await(timeout, unit);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void enqueue(Level lineLevel, String format, Object[] args, Throwable error) {
+        Line line = new Line(lineLevel, format, args, error, null);
+        if (queue.offer(line)) return;
+
+        if (lineLevel.compareTo(Level.WARN) <= 0) {
+            // Warnings & errors are never dropped, write them directly instead
+            synchronized (out) {
+                write(line);
+            }
+        } else {
+            dropped.incrementAndGet();
+        }
+    }
+
+    private static void drain() {
+        while (true) {
+            try {
+                Line line = queue.take();
+                synchronized (out) {
+                    do {
+                        if (line.flushed() != null) {
+                            line.flushed().countDown();
+                        } else {
+                            write(line);
+                        }
+                    } while ((line = queue.poll()) != null);
+
+                    long lost = dropped.getAndSet(0);
+                    if (lost > 0) out.println("[WARN] " + lost + " log line(s) dropped, the log buffer was full");
+                    out.flush();
+                }
+            } catch (InterruptedException e) {
+                return;
+            } catch (RuntimeException e) {
+                // A line which can't be formatted shouldn't stop the logger
+                e.printStackTrace(out);
+            }
+        }
+    }
+
+    private static void write(Line line) {
+        String message = line.args() == null ? line.format() : String.format(line.format(), line.args());
+        out.println(line.level() == Level.INFO ? message : "[" + line.level() + "] " + message);
+        if (line.error() != null) line.error().printStackTrace(out);
+    }
+
+    private record Line(Level level, String format, Object[] args, Throwable error, CountDownLatch flushed) {}
+}
@@ -0,0 +1,104 @@
+package life.savag3.lazy;
+
+import lombok.Getter;
+import org.objectweb.asm.Opcodes;
+import org.objectweb.asm.tree.AnnotationNode;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Precomputed stub body for a method descriptor. Everything needed to empty a method depends only on its descriptor,
+ * so stubs are built once per descriptor & shared by every class & worker thread.
+ *
+ * @author Jacob C (Savag3life)
+ * @since 2026-10-18
+ */
+public final class MethodStub {
+
+    private static final int MAX_CACHED = 1 << 16; // Stops a jar of generated descriptors growing the cache forever
+    private static final Map<String, MethodStub> CACHE = new ConcurrentHashMap<>();
+
+    @Getter private final int constantOpcode; // Pushes the default return value, -1 for void methods
+    @Getter private final int returnOpcode;
+    @Getter private final int maxStack;
+    private final int argumentSlots; // Local variable slots used by the parameters, not including `this`
+    @Getter private final AnnotationNode contract; // Shared JetBrains contract for methods returning an object, null otherwise. Never modified.
+
+    private MethodStub(int constantOpcode, int returnOpcode, int maxStack, int argumentSlots, AnnotationNode contract) {
+        this.constantOpcode = constantOpcode;
+        this.returnOpcode = returnOpcode;
+        this.maxStack = maxStack;
+        this.argumentSlots = argumentSlots;
+        this.contract = contract;
+    }
+
+    /**
+     * Get the stub for a method descriptor.
+     *
+     * @param descriptor The method descriptor `(Ljava/lang/String;I)V`
+     * @return The stub
+     */
+    public static MethodStub of(String descriptor) {
+        MethodStub stub = CACHE.get(descriptor);
+        if (stub != null) return stub;
+
+        stub = parse(descriptor);
+        if (CACHE.size() < MAX_CACHED) CACHE.putIfAbsent(descriptor, stub);
+        return stub;
+    }
+
+    /**
+     * Build the stub for a method descriptor in a single pass over the descriptor.
+     */
+    private static MethodStub parse(String descriptor) {
+        int params = 0;
+        int slots = 0;
+        int x = 1; // Skip the opening `(`
+        while (descriptor.charAt(x) != ')') {
+            char type = descriptor.charAt(x);
+            boolean array = false;
+            while (type == '[') {
+                array = true;
+                type = descriptor.charAt(++x);
+            }
+            if (type == 'L') x = descriptor.indexOf(';', x);
+
+            // Only longs & doubles take two slots, arrays of them are a single reference
+            params++;
+            slots += !array && (type == 'J' || type == 'D') ? 2 : 1;
+            x++;
+        }
+
+        return switch (descriptor.charAt(x + 1)) {
+            case 'V' -> new MethodStub(-1, Opcodes.RETURN, 0, slots, null);
+            case 'Z', 'B', 'C', 'S', 'I' -> new MethodStub(Opcodes.ICONST_0, Opcodes.IRETURN, 1, slots, null);
+            case 'J' -> new MethodStub(Opcodes.LCONST_0, Opcodes.LRETURN, 2, slots, null);
+            case 'F' -> new MethodStub(Opcodes.FCONST_0, Opcodes.FRETURN, 1, slots, null);
+            case 'D' -> new MethodStub(Opcodes.DCONST_0, Opcodes.DRETURN, 2, slots, null);
+            default -> new MethodStub(Opcodes.ACONST_NULL, Opcodes.ARETURN, 1, slots, contract(params));
+        };
+    }
+
+    /**
+     * Build the @Contract(_,_->!null) annotation for a method with the given number of parameters.
+     */
+    private static AnnotationNode contract(int params) {
+        StringBuilder value = new StringBuilder(params * 2 + 6);
+        for (int x = 0; x < params; x++) value.append(x == 0 ? "_" : ",_");
+        value.append("->!null");
+
+        AnnotationNode contract = new AnnotationNode("Lorg/jetbrains/annotations/Contract;");
+        contract.values = List.of("value", value.toString());
+        return contract;
+    }
+
+    /**
+     * @param isStatic True if the method is static
+     * @return The local variable slots used by the stub, including `this` for instance methods
+     */
+    public int getMaxLocals(boolean isStatic) {
+        return isStatic ? this.argumentSlots : this.argumentSlots + 1;
+    }
+}
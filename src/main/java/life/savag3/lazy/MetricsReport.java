@@ -0,0 +1,123 @@
+package life.savag3.lazy;
+
+import com.google.gson.Gson;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Machine-readable report of a run, written as JSON so timings & sizes can be tracked across builds.
+ *
+ * @author Jacob C (Savag3life)
+ * @since 2026-10-18
+ */
+public class MetricsReport {
+
+    private final String version = Lazy.getVERSION();
+    private final long configLoadMillis;
+    private final List<JarReport> jars = new ArrayList<>();
+
+    public MetricsReport(long configLoadNanos, List<StripResult> results) {
+        this.configLoadMillis = TimeUnit.NANOSECONDS.toMillis(configLoadNanos);
+        for (StripResult result : results) this.jars.add(new JarReport(result));
+    }
+
+    /**
+     * Write the report to a file, replacing any previous report.
+     *
+     * @param gson The Gson instance used to serialize the report
+     * @param path The report file
+     */
+    public void write(Gson gson, Path path) throws IOException {
+        Path parent = path.toAbsolutePath().getParent();
+        if (parent != null) Files.createDirectories(parent);
+        Files.writeString(path, gson.toJson(this));
+    }
+
+    private static class JarReport {
+        private final String input;
+        private final String output;
+        private final boolean failed;
+        private final String failure;
+        private final int classes;
+        private final int copied;
+        private final int pruned;
+        private final String api;
+        private final long originalSize;
+        private final long size;
+        private final long millis;
+        private final Map<String, Double> phaseMillis = new LinkedHashMap<>();
+        private long classBytesIn;
+        private long classBytesOut;
+        private long unchangedClasses;
+        private long cachedClasses; // Read from the class cache, not counted in the compacted bytes
+        private long compactedBytesBefore;
+        private long compactedBytesAfter;
+        private final List<Compaction> compacted = new ArrayList<>();
+        private Map<Long, Long> transformMicrosHistogram;
+        private final List<SlowClass> slowest = new ArrayList<>();
+
+        private JarReport(StripResult result) {
+            this.input = result.input().getAbsolutePath();
+            this.output = result.output().getAbsolutePath();
+            this.failed = result.isFailed();
+            this.failure = result.isFailed() ? result.failure().getMessage() : null;
+            this.classes = result.classes();
+            this.copied = result.copied();
+            this.pruned = result.pruned().size();
+            this.api = result.api();
+            this.originalSize = result.originalSize();
+            this.size = result.size();
+            this.millis = result.millis();
+
+            StripMetrics metrics = result.metrics();
+            if (metrics == null) return;
+
+            for (StripMetrics.Phase phase : StripMetrics.Phase.values()) {
+                this.phaseMillis.put(phase.name().toLowerCase(Locale.ROOT), metrics.getNanos(phase) / 1_000_000.0D);
+            }
+            this.classBytesIn = metrics.getBytesIn();
+            this.classBytesOut = metrics.getBytesOut();
+            this.unchangedClasses = metrics.getUnchanged();
+            this.cachedClasses = metrics.getCached();
+            for (StripMetrics.Compaction compaction : metrics.getCompactions()) {
+                this.compactedBytesBefore += compaction.before();
+                this.compactedBytesAfter += compaction.after();
+                this.compacted.add(new Compaction(compaction.name(), compaction.before(), compaction.after()));
+            }
+            this.transformMicrosHistogram = metrics.getHistogram();
+            for (StripMetrics.SlowClass slow : metrics.getSlowest()) {
+                this.slowest.add(new SlowClass(slow.name(), slow.nanos() / 1_000_000.0D));
+            }
+        }
+    }
+
+    private static class Compaction {
+        private final String name;
+        private final int before;
+        private final int after;
+
+        private Compaction(String name, int before, int after) {
+            this.name = name;
+            this.before = before;
+            this.after = after;
+        }
+    }
+
+    private static class SlowClass {
+        private final String name;
+        private final double millis;
+
+        private SlowClass(String name, double millis) {
+            this.name = name;
+            this.millis = millis;
+        }
+    }
+}
@@ -0,0 +1,139 @@
+package life.savag3.lazy;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Set of EXEMPT / EXCLUDE patterns compiled into a prefix trie. Exact paths & `package0/package1/*` patterns are answered
+ * by a single walk down the trie, patterns with inner wildcards such as `package0/*&#47;package2` hang off the trie node
+ * of their literal prefix & only have their remaining parts checked once a path reaches that node. Matching never allocates.
+ *
+ * @author Jacob C (Savag3life)
+ * @since 2026-10-18
+ */
+public final class PatternMatcher {
+
+    private static final String[][] NO_GLOBS = new String[0][];
+
+    private final Node root = new Node();
+    private final boolean empty;
+
+    private PatternMatcher(Collection<String> patterns) {
+        this.empty = patterns.isEmpty();
+        for (String pattern : patterns) add(pattern);
+    }
+
+    /**
+     * Compile a list of patterns.
+     *
+     * @param patterns The patterns to compile
+     * @return The compiled matcher
+     */
+    public static PatternMatcher compile(Collection<String> patterns) {
+        return new PatternMatcher(patterns);
+    }
+
+    /**
+     * Checks if a path matches any of the patterns
+     *
+     * @param path The path to check
+     * @return True if the path matches any of the patterns, false otherwise
+     */
+    public boolean matches(String path) {
+        if (this.empty) return false;
+
+        Node node = this.root;
+        int length = path.length();
+        for (int x = 0; ; x++) {
+            if (node.prefix) return true;
+            for (String[] parts : node.globs) {
+                if (matchesParts(parts, path, x)) return true;
+            }
+            if (x == length) return node.exact;
+
+            node = node.child(path.charAt(x));
+            if (node == null) return false;
+        }
+    }
+
+    /**
+     * Check if the remaining parts of a pattern with inner wildcards appear in order, starting at the given index.
+     */
+    private static boolean matchesParts(String[] parts, String path, int from) {
+        for (String part : parts) {
+            int idx = path.indexOf(part, from);
+            if (idx == -1) return false;
+            from = idx + part.length();
+        }
+        return true;
+    }
+
+    private void add(String pattern) {
+        int wildcard = pattern.indexOf('*');
+        String literal = wildcard == -1 ? pattern : pattern.substring(0, wildcard);
+
+        Node node = this.root;
+        for (int x = 0; x < literal.length(); x++) node = node.getOrAdd(literal.charAt(x));
+
+        if (wildcard == -1) {
+            node.exact = true;
+            return;
+        }
+
+        // Split the rest of the pattern on wildcards, consecutive & trailing wildcards leave empty parts
+        List<String> parts = new ArrayList<>();
+        int start = wildcard + 1;
+        while (start <= pattern.length()) {
+            int end = pattern.indexOf('*', start);
+            if (end == -1) end = pattern.length();
+            if (end > start) parts.add(pattern.substring(start, end));
+            start = end + 1;
+        }
+
+        if (parts.isEmpty()) {
+            // `package0/package1/*`, anything starting with the literal prefix matches
+            node.prefix = true;
+        } else {
+            node.globs = Arrays.copyOf(node.globs, node.globs.length + 1);
+            node.globs[node.globs.length - 1] = parts.toArray(new String[0]);
+        }
+    }
+
+    private static final class Node {
+        private char[] keys = new char[0];
+        private Node[] children = new Node[0];
+
+        private boolean exact; // A pattern without wildcards ends at this node
+        private boolean prefix; // A pattern ending with a wildcard ends at this node
+        private String[][] globs = NO_GLOBS; // Remaining parts of patterns with inner wildcards
+
+        private Node child(char key) {
+            int idx = Arrays.binarySearch(this.keys, key);
+            return idx < 0 ? null : this.children[idx];
+        }
+
+        private Node getOrAdd(char key) {
+            int idx = Arrays.binarySearch(this.keys, key);
+            if (idx >= 0) return this.children[idx];
+
+            int insert = -idx - 1;
+            Node node = new Node();
+
+            char[] keys = new char[this.keys.length + 1];
+            System.arraycopy(this.keys, 0, keys, 0, insert);
+            System.arraycopy(this.keys, insert, keys, insert + 1, this.keys.length - insert);
+            keys[insert] = key;
+
+            Node[] children = new Node[this.children.length + 1];
+            System.arraycopy(this.children, 0, children, 0, insert);
+            System.arraycopy(this.children, insert, children, insert + 1, this.children.length - insert);
+            children[insert] = node;
+
+            this.keys = keys;
+            this.children = children;
+            return node;
+        }
+    }
+}
@@ -0,0 +1,809 @@
+package life.savag3.lazy;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.jar.JarFile;
+
+/**
+ * Strips a single input jar into an output jar. Classes are stripped on the worker pool of a {@link LazyStripper},
+ * shared by every job of a run, while the job itself collects the results & writes the output jar.
+ * <p>
+ * Either side may instead be an exploded jar, a directory of classes such as `target/classes`. Stripped classes
+ * are written into an output directory by the workers themselves, mirroring the layout of the input.
+ *
+ * @author Jacob C (Savag3life)
+ * @since 2026-10-18
+ */
+public class StripJob {
+
+    private static final ThreadMXBean THREAD_BEAN = ManagementFactory.getThreadMXBean();
+    // Thread CPU time reads as -1 when the JVM doesn't support it or has it turned off, worker CPU time is left out then
+    private static final boolean CPU_TIME = THREAD_BEAN.isThreadCpuTimeSupported() && THREAD_BEAN.isThreadCpuTimeEnabled();
+
+    private final File originalFile; // Original input jar
+    private final File output; // Output jar
+    private final LazyStripper stripper; // Strips classes on the worker pool shared with other jobs
+    private final LazyConfig config; // Options of the stripper, read once per job
+
+    private JarFile originalJarFile; // The input jar opened as a JarFile, only opened when the mapped jar can't be used
+    private JarIndex originalIndex; // The memory-mapped input jar
+
+    private final List<Collected> results = new ArrayList<>(); // Entries waiting to be packed, in output order. Only used when not streaming
+    private File written; // File the output jar is written to, a temporary file next to the output when skipping unchanged output
+    private Path outputDirectory; // Directory the output is written to as an exploded jar, null when writing a jar
+    private final LongAdder outputDirectoryBytes = new LongAdder(); // Bytes written to the output directory
+    private long originalSize; // Size of the input jar, or of every file in the input directory
+    private JarWriter jarWriter; // Opened up front when streaming output
+
+    private int classCount; // Number of classes stripped & written to the output jar
+    private int copyCount; // Number of entries copied as-is to the output jar
+    private int rawCount; // Number of copied entries transferred still compressed, without being inflated
+    private long rawBytes; // Compressed bytes of the entries transferred raw
+    private int inflatedCount; // Number of copied entries inflated, then recompressed or written to the output directory
+    private long inflatedBytes; // Uncompressed bytes of the inflated entries
+    private int exemptCount; // Number of exempt classes copied as-is to the output jar
+    private int excludedCount; // Number of entries left out of the output jar
+    private int nestedCount; // Number of nested jars stripped & written to the output jar
+    private Set<String> pruned = Set.of(); // Entry names of classes unreachable from the public API, left out of the output jar
+    private ApiIndex apiIndex; // API of the classes written to the output, null unless API_INDEX is set
+    private final List<Future<?>> apiTasks = new ArrayList<>(); // Indexing of exempt classes, which are copied without being read
+    private String api; // Digest of the written API index
+    private final AtomicInteger failedCount = new AtomicInteger(); // Number of classes which couldn't be stripped & were skipped
+
+    private long processNanos; // Wall-clock time spent processing classes
+    private final LongAdder workerNanos = new LongAdder(); // Cumulative CPU time spent by all workers on this job
+    private final StripMetrics metrics; // Per-phase timings of this job
+
+    public StripJob(File input, File output, LazyStripper stripper) {
+        this.originalFile = input;
+        this.output = output;
+        this.stripper = stripper;
+        this.config = stripper.getConfig();
+        this.metrics = new StripMetrics(this.config.getMetricsSlowestClasses());
+    }
+
+    /**
+     * Strip the input jar into the output jar. A partially written output jar is removed if the job fails.
+     *
+     * @return The summary of the stripped jar
+     * @throws LazyException If the input can't be read or the output can't be written
+     */
+    public StripResult run() throws LazyException {
+        Instant start = Instant.now();
+        JarStripEvent event = new JarStripEvent();
+        event.begin();
+        event.input = this.originalFile.getAbsolutePath();
+        event.output = this.output.getAbsolutePath();
+        boolean succeeded = false;
+        try {
+            long openStart = System.nanoTime();
+            attemptLoadInput();
+            this.metrics.time(StripMetrics.Phase.JAR_OPEN, System.nanoTime() - openStart);
+
+            try {
+                Files.createDirectories(this.output.getAbsoluteFile().getParentFile().toPath());
+                if (isDirectory(this.output)) {
+                    this.outputDirectory = Files.createDirectories(this.output.toPath()).toAbsolutePath().normalize();
+                } else if (this.config.isSkipUnchangedOutput()) {
+                    this.written = Files.createTempFile(this.output.getAbsoluteFile().getParentFile().toPath(), this.output.getName(), ".tmp").toFile();
+                } else {
+                    this.written = this.output;
+                    this.output.createNewFile();
+                }
+            } catch (IOException er) {
+                throw new LazyException("Couldn't create output file. (" + this.output.getAbsolutePath() + ")", er);
+            }
+
+            Log.info(" ");
+            if (this.config.isPruneUnreachable()) prune();
+            if (this.config.isApiIndex()) this.apiIndex = ApiIndex.open(ApiIndex.pathOf(this.output.toPath()));
+            process();
+            pack(start);
+
+            event.classes = this.classCount;
+            event.originalSize = this.originalSize;
+            event.size = outputSize();
+            event.commit();
+            StripResult result = new StripResult(this.originalFile, this.output, this.classCount, this.copyCount, this.originalSize, outputSize(), Duration.between(start, Instant.now()).toMillis(), this.metrics, this.pruned.stream().sorted().toList(), this.api, null);
+            succeeded = true;
+            return result;
+        } finally {
+            // Any failure, not only a LazyException, closes the input & removes the partial output
+            if (!succeeded) {
+                event.failed = true;
+                event.commit();
+                close();
+                try {
+                    if (this.written != null) Files.deleteIfExists(this.written.toPath());
+                    // Output directories are left alone, they may hold files which weren't written by Lazy
+                    if (this.outputDirectory == null && !this.output.isDirectory()) Files.deleteIfExists(this.output.toPath());
+                } catch (IOException ignored) {}
+            }
+        }
+    }
+
+    /**
+     * Find the classes of the input jar which can't be reached from its public API. Classes are scanned on the worker pool,
+     * classes which can't be scanned are always kept.
+     *
+     * @see ApiReachability
+     */
+    private void prune() throws LazyException {
+        long pruneStart = System.nanoTime();
+        ApiReachability graph = new ApiReachability();
+        List<Map.Entry<JarIndex.Entry, Future<ApiReachability.Node>>> scans = new ArrayList<>();
+
+        try {
+            for (JarIndex.Entry entry : this.originalIndex.getEntries()) {
+                String name = entry.name();
+                if (entry.isDirectory() || PackageUtils.isSignature(name) || this.config.isExcluded(name)) continue;
+
+                if (name.startsWith("META-INF/services/")) {
+                    // Service providers are loaded reflectively, so are part of the API no matter their access
+                    for (String line : new String(read(entry), StandardCharsets.UTF_8).split("\\R")) {
+                        String provider = line.replaceFirst("#.*", "").trim();
+                        if (!provider.isEmpty()) graph.addRoot(provider.replace('.', '/'));
+                    }
+                } else if (name.endsWith(".class")) {
+                    boolean exempt = this.config.isExempt(name);
+                    scans.add(Map.entry(entry, this.stripper.submit(() -> {
+                        ApiReachability.Node node = ApiReachability.scan(read(entry));
+                        // Exempt classes are copied whole, so are kept like public classes
+                        return exempt ? new ApiReachability.Node(node.name(), true, node.references()) : node;
+                    })));
+                }
+            }
+
+            Map<JarIndex.Entry, String> classNames = new HashMap<>();
+            for (Map.Entry<JarIndex.Entry, Future<ApiReachability.Node>> scan : scans) {
+                try {
+                    ApiReachability.Node node = scan.getValue().get();
+                    graph.add(node);
+                    classNames.put(scan.getKey(), node.name());
+                } catch (ExecutionException e) {
+                    Log.debug("Failed to scan class, keeping it: " + scan.getKey().name(), e.getCause());
+                }
+            }
+
+            Set<String> reachable = graph.reachable();
+            Set<String> pruned = new HashSet<>();
+            classNames.forEach((entry, name) -> {
+                if (!reachable.contains(name)) pruned.add(entry.name());
+            });
+            this.pruned = pruned;
+        } catch (IOException e) {
+            throw new LazyException("Failed to read entry from jar file while pruning.", e);
+        } catch (InterruptedException e) {
+            for (Map.Entry<JarIndex.Entry, Future<ApiReachability.Node>> scan : scans) scan.getValue().cancel(true);
+            Thread.currentThread().interrupt();
+            throw new LazyException("Worker failed while pruning classes.", e);
+        }
+
+        this.metrics.time(StripMetrics.Phase.PRUNE, System.nanoTime() - pruneStart);
+        Log.info("Pruning %d of %d classes unreachable from the public API", this.pruned.size(), scans.size());
+        for (String name : this.pruned.stream().sorted().toList()) Log.trace(" .. Pruning %s", name);
+    }
+
+    /**
+     * Enumerate over the entries of the input jar & hand every class to the worker pool.
+     */
+    private void process() throws LazyException {
+        int inFlightLimit = this.config.getInFlightClasses() > 0 ? this.config.getInFlightClasses() : this.stripper.getThreads() * 8;
+        boolean streaming = this.config.isStreamOutput() || this.outputDirectory != null;
+        Log.info("Processing classes using " + this.stripper.getThreads() + " worker thread(s)" + (streaming ? ", streaming output" : ""));
+
+        // When streaming, classes are written to the output jar as soon as they're produced
+        if (this.config.isStreamOutput() && this.outputDirectory == null) this.jarWriter = openOutput();
+
+        Deque<Pending> inFlight = new ArrayDeque<>();
+        long processStart = System.nanoTime();
+
+        List<JarIndex.Entry> entries = this.originalIndex.getEntries();
+        if (this.config.isReproducibleOutput()) {
+            // Entry order of the input jar doesn't change the output
+            entries = new ArrayList<>(entries);
+            entries.sort(Comparator.comparing(JarIndex.Entry::name));
+        }
+
+        try {
+            // The manifest is always written first (unless excluded), so it can be found by JarInputStream
+            for (JarIndex.Entry entry : entries) {
+                if (!entry.name().equalsIgnoreCase(JarFile.MANIFEST_NAME)) continue;
+                if (this.config.isExcluded(entry.name())) {
+                    this.excludedCount++;
+                    continue;
+                }
+                collect(new Pending(entry, null, false));
+            }
+
+            for (JarIndex.Entry entry : entries) {
+                if (entry.isDirectory()) continue;
+                String name = entry.name();
+
+                // Check if an entry is excluded | true ? skip : process
+                if (entry.name().equalsIgnoreCase(JarFile.MANIFEST_NAME) || PackageUtils.isSignature(name)) continue;
+                if (this.config.isExcluded(name)) {
+                    this.excludedCount++;
+                    continue;
+                }
+                if (this.pruned.contains(name)) continue;
+
+                if (this.config.isNestedJar(name) && !this.config.isExempt(name)) {
+                    // Nested jars are stripped in memory alongside the top-level classes & written back stored
+                    inFlight.add(new Pending(entry, this.stripper.stripNested(name, () -> read(entry))
+                            .thenApply(bytes -> bytes == null ? null : JarWriter.compress(name, bytes, JarWriter.Compression.STORED, this.config.getCompressionLevel())), true));
+                } else if (!name.endsWith(".class")) {
+                    // Resources are copied as-is
+                    if (this.config.isIncludeResources()) inFlight.add(new Pending(entry, null, false));
+                } else if (this.config.isExempt(name)) {
+                    // Check if a class is exempt | true ? write whole class to output : write stripped class to output
+                    this.exemptCount++;
+                    inFlight.add(new Pending(entry, null, false));
+                    if (this.apiIndex != null) this.apiTasks.add(this.stripper.submit(() -> index(entry)));
+                } else {
+                    inFlight.add(new Pending(entry, this.stripper.submit(() -> {
+                        JarWriter.Compressed compressed = process(entry);
+                        // Exploded output is written by the workers, so files are written in parallel
+                        if (compressed != null && this.outputDirectory != null) writeFile(compressed.name(), compressed.data(), compressed.length());
+                        return compressed;
+                    }), false));
+                }
+
+                // Wait on the oldest entry once the limit is reached. Keeps the output in input order
+                // & stops the workers from running too far ahead of the writer.
+                if (inFlight.size() >= inFlightLimit) collect(inFlight.poll());
+            }
+
+            while (!inFlight.isEmpty()) collect(inFlight.poll());
+            for (Future<?> task : this.apiTasks) task.get();
+        } catch (InterruptedException | ExecutionException e) {
+            // Don't leave classes of a failed job queued on the shared pool
+            for (Pending pending : inFlight) {
+                if (pending.result() != null) pending.result().cancel(true);
+            }
+            this.apiTasks.forEach(task -> task.cancel(true));
+            if (e instanceof InterruptedException) Thread.currentThread().interrupt();
+            throw new LazyException("Worker failed while processing classes.", e);
+        }
+
+        this.processNanos = System.nanoTime() - processStart;
+    }
+
+    /**
+     * Process a single class entry from the input jar. Safe to call from any worker thread,
+     * failures are contained to the class being processed. Classes are compressed here rather than by the writer,
+     * so compression runs on every worker instead of one thread.
+     *
+     * @param clazz The class entry to process.
+     * @return The compressed entry to write to the output jar, or null if the class is skipped.
+     */
+    private JarWriter.Compressed process(JarIndex.Entry clazz) {
+        long start = CPU_TIME ? THREAD_BEAN.getCurrentThreadCpuTime() : 0;
+        try {
+            Log.trace("Processing %s", clazz.name());
+            long readStart = System.nanoTime();
+            byte[] bytes = read(clazz);
+            this.metrics.time(StripMetrics.Phase.READ, System.nanoTime() - readStart);
+
+            ClassTransformEvent event = new ClassTransformEvent();
+            event.begin();
+            long transformStart = System.nanoTime();
+            byte[] stripped = this.stripper.transform(bytes, clazz.name(), this.metrics);
+            this.metrics.recordTransform(clazz.name(), System.nanoTime() - transformStart, bytes.length, stripped.length, stripped == bytes);
+            // Guarded, the varargs array & boxed sizes would otherwise be allocated for every class
+            if (Log.isEnabled(Log.Level.TRACE)) Log.trace(" .. Stripped %s (%d -> %d bytes)", clazz.name(), bytes.length, stripped.length);
+
+            event.className = clazz.name();
+            event.bytesIn = bytes.length;
+            event.bytesOut = stripped.length;
+            event.commit();
+
+            long compressStart = System.nanoTime();
+            // Classes written to an output directory are never compressed
+            JarWriter.Compressed compressed = JarWriter.compress(clazz.name(), stripped, this.outputDirectory != null ? JarWriter.Compression.STORED : this.config.getOutputCompression(), this.config.getCompressionLevel());
+            this.metrics.time(StripMetrics.Phase.COMPRESS, System.nanoTime() - compressStart);
+
+            if (this.apiIndex != null) {
+                long indexStart = System.nanoTime();
+                this.apiIndex.add(clazz.name(), compressed.crc(), stripped.length, () -> stripped);
+                this.metrics.time(StripMetrics.Phase.INDEX, System.nanoTime() - indexStart);
+            }
+            return compressed;
+        } catch (Exception e) {
+            this.failedCount.incrementAndGet();
+            Log.warn("Failed while processing class, skipping it: " + clazz.name());
+            Log.debug("Failed while processing class: " + clazz.name(), e);
+            return null;
+        } finally {
+            if (CPU_TIME) this.workerNanos.add(THREAD_BEAN.getCurrentThreadCpuTime() - start);
+        }
+    }
+
+    /**
+     * Add an exempt class to the API index. Its bytes are only read when it changed since the last index.
+     *
+     * @param clazz The exempt class entry
+     * @return Nothing, so it can be submitted as a task
+     */
+    private Void index(JarIndex.Entry clazz) {
+        long indexStart = System.nanoTime();
+        try {
+            this.apiIndex.add(clazz.name(), clazz.crc(), clazz.size(), () -> read(clazz));
+        } catch (Exception e) {
+            // Still written to the output, it just won't be part of the index
+            Log.warn("Failed to index the API of a class, leaving it out of the index: " + clazz.name());
+            Log.debug("Failed to index the API of a class: " + clazz.name(), e);
+        }
+        this.metrics.time(StripMetrics.Phase.INDEX, System.nanoTime() - indexStart);
+        return null;
+    }
+
+    /**
+     * Read the uncompressed bytes of an entry from the input jar.
+     *
+     * @param entry The entry to read.
+     * @return The entry content.
+     */
+    private byte[] read(JarIndex.Entry entry) throws IOException {
+        if (this.originalIndex.canRead(entry)) return this.originalIndex.read(entry);
+
+        JarFile jarFile = jarFile();
+        return jarFile.getInputStream(jarFile.getJarEntry(entry.name())).readAllBytes();
+    }
+
+    /**
+     * Get the input jar opened as a JarFile, opening it the first time it's needed. Only used for archives
+     * (or entries) which can't be read from the memory-mapped jar.
+     *
+     * @return The opened input jar.
+     */
+    private synchronized JarFile jarFile() throws IOException {
+        if (this.originalJarFile == null) this.originalJarFile = new JarFile(this.originalFile);
+        return this.originalJarFile;
+    }
+
+    /**
+     * Wait for an entry to finish processing & either write it straight to the output jar
+     * when streaming, or add it to the results to be packed later.
+     *
+     * @param pending The entry to collect.
+     */
+    private void collect(Pending pending) throws InterruptedException, ExecutionException, LazyException {
+        if (pending.result() == null) {
+            this.copyCount++;
+            if (this.jarWriter != null || this.outputDirectory != null) {
+                copy(pending.entry());
+            } else {
+                this.results.add(new Collected(pending.entry(), null));
+            }
+            return;
+        }
+
+        JarWriter.Compressed compressed = pending.result().get();
+        if (compressed == null) {
+            if (pending.nested()) this.failedCount.incrementAndGet();
+            return;
+        }
+
+        if (pending.nested()) {
+            this.nestedCount++;
+        } else {
+            this.classCount++;
+        }
+        if (this.outputDirectory != null && !pending.nested()) {
+            // Already written by the worker
+            return;
+        } else if (this.outputDirectory != null) {
+            try {
+                writeFile(compressed.name(), compressed.data(), compressed.length());
+            } catch (IOException e) {
+                throw new LazyException("Failed to write nested jar to output directory: " + compressed.name() + ". (" + this.output.getAbsolutePath() + ")", e);
+            }
+        } else if (this.jarWriter != null) {
+            write(compressed);
+        } else {
+            this.results.add(new Collected(pending.entry(), compressed));
+        }
+    }
+
+    /**
+     * Attempt to load the input jar.
+     */
+    private void attemptLoadInput() throws LazyException {
+        if (!this.originalFile.exists()) {
+            throw new LazyException("Input file doesn't exist. (" + this.originalFile.getAbsolutePath() + ")");
+        }
+
+        if (this.originalFile.isDirectory()) {
+            Log.info("Reading Directory... (" + originalFile.getAbsolutePath() + ")");
+            try {
+                this.originalIndex = JarIndex.of(this.originalFile.toPath());
+            } catch (IOException e) {
+                throw new LazyException("Failed to read input directory. (" + originalFile.getAbsolutePath() + ")", e);
+            }
+            this.originalSize = this.originalIndex.getEntries().stream().mapToLong(JarIndex.Entry::size).sum();
+            return;
+        }
+
+        this.originalSize = this.originalFile.length();
+        Log.info("Reading Jar... (" + originalFile.getAbsolutePath() + ")");
+        try {
+            this.originalIndex = JarIndex.open(originalFile);
+            return;
+        } catch (IOException e) {
+            // May still be readable through JarFile, entries just can't be copied without recompressing them
+            Log.info("Failed to map jar file, falling back to JarFile. (" + e.getMessage() + ")");
+        }
+
+        try {
+            this.originalIndex = JarIndex.of(jarFile());
+        } catch (IOException e) {
+            throw new LazyException("Failed to read jar file. (" + originalFile.getAbsolutePath() + ")", e);
+        }
+    }
+
+    /**
+     * Open the output jar.
+     *
+     * @return The opened output jar writer.
+     */
+    private JarWriter openOutput() throws LazyException {
+        Log.info("Writing new Jar (" + this.output.getAbsolutePath() + ")");
+        try {
+            return new JarWriter(FileChannel.open(this.written.toPath(), StandardOpenOption.WRITE, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING), this.config.isReproducibleOutput());
+        } catch (IOException e) {
+            throw new LazyException("Failed to write jar file, couldn't create JarWriter. (" + this.output.getAbsolutePath() + ")", e);
+        }
+    }
+
+    /**
+     * Write a single entry to the output jar.
+     *
+     * @param pack The package & class name `life/savag3/example/Core.class`
+     * @param bytes The bytes that are contained in the cleaned class.
+     */
+    private void write(String pack, byte[] bytes) throws LazyException {
+        write(JarWriter.compress(pack, bytes, this.config.getOutputCompression(), this.config.getCompressionLevel()));
+    }
+
+    /**
+     * Write a single entry, compressed ahead of time, to the output jar.
+     *
+     * @param entry The compressed entry.
+     */
+    private void write(JarWriter.Compressed entry) throws LazyException {
+        try {
+            Log.trace(" .. Writing %s", entry.name());
+            long writeStart = System.nanoTime();
+            this.jarWriter.write(entry);
+            this.metrics.time(StripMetrics.Phase.WRITE, System.nanoTime() - writeStart);
+        } catch (IOException e) {
+            throw new LazyException("Failed to write jar file, couldn't write entry " + entry.name() + ". (" + this.output.getAbsolutePath() + ")", e);
+        }
+    }
+
+    /**
+     * Copy a single entry from the input jar to the output jar, without recompressing it where possible.
+     *
+     * @param entry The entry to copy.
+     */
+    private void copy(JarIndex.Entry entry) throws LazyException {
+        if (this.outputDirectory != null) {
+            try {
+                long readStart = System.nanoTime();
+                byte[] bytes = read(entry);
+                this.metrics.time(StripMetrics.Phase.READ, System.nanoTime() - readStart);
+                this.inflatedCount++;
+                this.inflatedBytes += bytes.length;
+                writeFile(entry.name(), bytes, bytes.length);
+            } catch (IOException e) {
+                throw new LazyException("Failed to copy entry to output directory: " + entry.name() + ". (" + this.output.getAbsolutePath() + ")", e);
+            }
+            return;
+        }
+
+        if (!entry.isRaw()) {
+            try {
+                long readStart = System.nanoTime();
+                byte[] bytes = read(entry);
+                this.metrics.time(StripMetrics.Phase.READ, System.nanoTime() - readStart);
+                this.inflatedCount++;
+                this.inflatedBytes += bytes.length;
+                write(entry.name(), bytes);
+            } catch (IOException e) {
+                throw new LazyException("Failed to read entry from jar file: " + entry.name(), e);
+            }
+            return;
+        }
+
+        try {
+            Log.trace(" .. Copying %s", entry.name());
+            long writeStart = System.nanoTime();
+            this.originalIndex.transferTo(entry, this.jarWriter);
+            this.metrics.time(StripMetrics.Phase.WRITE, System.nanoTime() - writeStart);
+            this.rawCount++;
+            this.rawBytes += entry.compressedSize();
+        } catch (IOException e) {
+            throw new LazyException("Failed to write jar file, couldn't copy entry " + entry.name() + ". (" + this.output.getAbsolutePath() + ")", e);
+        }
+    }
+
+    /**
+     * Finish writing the output & print the summary of the job.
+     */
+    private void pack(Instant start) throws LazyException {
+        Log.info(" ");
+
+        if (this.outputDirectory != null) {
+            close();
+        } else {
+            packJar();
+        }
+        if (this.apiIndex != null) writeApiIndex();
+
+        Log.info(" ");
+        Log.info((this.outputDirectory != null ? "Classes saved to " : "Jar saved to ") + this.output.getAbsolutePath() + " in " + Duration.between(start, Instant.now()).toMillis() + "ms");
+        Log.info(
+                "Original Size: %d bytes, New size: %d bytes; Size reduced by %.2f%%",
+                this.originalSize,
+                outputSize(),
+                this.originalSize == 0 ? 0.0D : Math.abs((1.0D - ((double) outputSize() / (double) this.originalSize))) * 100.0D
+        );
+        if (CPU_TIME) {
+            Log.info(
+                    "Processed %d classes on %d thread(s) in %dms (%dms of worker CPU time); Worker CPU / wall %.2fx",
+                    this.classCount,
+                    this.stripper.getThreads(),
+                    TimeUnit.NANOSECONDS.toMillis(this.processNanos),
+                    TimeUnit.NANOSECONDS.toMillis(this.workerNanos.sum()),
+                    this.processNanos == 0 ? 1.0D : (double) this.workerNanos.sum() / (double) this.processNanos
+            );
+        } else {
+            Log.info("Processed %d classes on %d thread(s) in %dms", this.classCount, this.stripper.getThreads(), TimeUnit.NANOSECONDS.toMillis(this.processNanos));
+        }
+        if (this.outputDirectory != null) {
+            Log.info("Copied %d entries (%d bytes)", this.inflatedCount, this.inflatedBytes);
+        } else {
+            Log.info("Copied %d entries (%d bytes) without recompressing", this.rawCount, this.rawBytes);
+            // Entries of jars which couldn't be mapped, or stored in a way which can't be copied raw
+            if (this.inflatedCount > 0) Log.info("Recompressed %d entries (%d bytes) which couldn't be copied raw", this.inflatedCount, this.inflatedBytes);
+        }
+        if (this.nestedCount > 0) Log.info("Stripped %d nested jar(s)", this.nestedCount);
+        Log.info(
+                "Classes: %d stripped (%d unchanged), %d exempt, %d pruned, %d failed; %d entries excluded",
+                this.classCount,
+                this.metrics.getUnchanged(),
+                this.exemptCount,
+                this.pruned.size(),
+                this.failedCount.get(),
+                this.excludedCount
+        );
+        long bytesIn = this.metrics.getBytesIn();
+        long bytesOut = this.metrics.getBytesOut();
+        Log.info("Class bytes: %d -> %d (%.1f%% smaller)", bytesIn, bytesOut, bytesIn == 0 ? 0.0D : 100.0D * (bytesIn - bytesOut) / bytesIn);
+
+        List<StripMetrics.Compaction> compactions = this.metrics.getCompactions();
+        if (!compactions.isEmpty()) {
+            long before = 0, after = 0;
+            for (StripMetrics.Compaction compaction : compactions) {
+                before += compaction.before();
+                after += compaction.after();
+            }
+            Log.info("Compaction: %d classes, %d -> %d bytes (%.1f%% smaller)", compactions.size(), before, after, before == 0 ? 0.0D : 100.0D * (before - after) / before);
+        }
+        // Cached classes were compacted by an earlier run, their size before compaction isn't stored
+        if (this.config.isCompactClasses() && this.metrics.getCached() > 0) {
+            Log.info("Compaction excludes %d classes read from the class cache", this.metrics.getCached());
+        }
+
+        StringBuilder phases = new StringBuilder("Phases:");
+        for (StripMetrics.Phase phase : StripMetrics.Phase.values()) {
+            phases.append(' ').append(phase.name().toLowerCase(Locale.ROOT)).append('=').append(TimeUnit.NANOSECONDS.toMillis(this.metrics.getNanos(phase))).append("ms");
+        }
+        Log.info(phases.toString());
+        for (StripMetrics.SlowClass slow : this.metrics.getSlowest()) {
+            Log.debug(" .. Slow class %s took %.2fms", slow.name(), slow.nanos() / 1_000_000.0D);
+        }
+    }
+
+    /**
+     * Write every collected entry to a new output jar, or finish the output jar if entries
+     * were streamed to it while processing.
+     */
+    private void packJar() throws LazyException {
+        if (this.jarWriter == null) {
+            this.jarWriter = openOutput();
+            for (Collected result : this.results) {
+                if (result.compressed() == null) {
+                    copy(result.entry());
+                } else {
+                    write(result.compressed());
+                }
+            }
+        }
+
+        long closeStart = System.nanoTime();
+        try {
+            JarWriter writer = this.jarWriter;
+            this.jarWriter = null;
+            writer.close();
+        } catch (IOException e) {
+            throw new LazyException("Failed to write jar file, couldn't close JarWriter. (" + this.output.getAbsolutePath() + ")", e);
+        } finally {
+            close();
+        }
+        if (this.written != this.output) replaceOutput();
+        this.metrics.time(StripMetrics.Phase.CLOSE, System.nanoTime() - closeStart);
+    }
+
+    /**
+     * Write the API index next to the output, once the output has been written.
+     */
+    private void writeApiIndex() throws LazyException {
+        Path file = ApiIndex.pathOf(this.output.toPath());
+        long indexStart = System.nanoTime();
+        try {
+            this.api = this.apiIndex.write(file);
+        } catch (IOException e) {
+            throw new LazyException("Failed to write API index. (" + file.toAbsolutePath() + ")", e);
+        }
+        this.metrics.time(StripMetrics.Phase.INDEX, System.nanoTime() - indexStart);
+    }
+
+    /**
+     * Write a single file to the output directory. Safe to call from any worker thread.
+     *
+     * @param name The entry name, relative to the output directory
+     * @param bytes The file content, only the first `length` bytes are written
+     * @param length The file size
+     */
+    private void writeFile(String name, byte[] bytes, int length) throws IOException {
+        Path path = this.outputDirectory.resolve(name).normalize();
+        if (!path.startsWith(this.outputDirectory)) throw new IOException("Entry is outside of the output directory: " + name);
+
+        Log.trace(" .. Writing %s", name);
+        long writeStart = System.nanoTime();
+        // An identical file is left untouched, so its modification time doesn't change
+        if (!this.config.isSkipUnchangedOutput() || !hasContent(path, bytes, length)) {
+            Files.createDirectories(path.getParent());
+            try (OutputStream out = Files.newOutputStream(path)) {
+                out.write(bytes, 0, length);
+            }
+        }
+        this.outputDirectoryBytes.add(length);
+        this.metrics.time(StripMetrics.Phase.WRITE, System.nanoTime() - writeStart);
+    }
+
+    private static boolean hasContent(Path path, byte[] bytes, int length) throws IOException {
+        if (!Files.isRegularFile(path) || Files.size(path) != length) return false;
+        return Arrays.equals(Files.readAllBytes(path), 0, length, bytes, 0, length);
+    }
+
+    /**
+     * Check if an output is written as an exploded jar rather than a jar. Only existing directories are, any other path
+     * is written as a jar. The command line creates the directory up front for output paths ending with a separator.
+     */
+    static boolean isDirectory(File file) {
+        return file.isDirectory();
+    }
+
+    /**
+     * @return The size of the output jar, or of every file written to the output directory
+     */
+    private long outputSize() {
+        return this.outputDirectory != null ? this.outputDirectoryBytes.sum() : this.output.length();
+    }
+
+    /**
+     * Move the freshly written jar over the output jar, unless the output jar already has exactly the same content.
+     * An untouched output keeps its modification time, so tools watching it see no change.
+     */
+    private void replaceOutput() throws LazyException {
+        Path written = this.written.toPath();
+        Path output = this.output.toPath();
+        try {
+            byte[] digest = digest(written);
+            Log.debug("Output SHA-256: %s", HexFormat.of().formatHex(digest));
+            if (Files.isRegularFile(output) && Files.size(output) == Files.size(written) && MessageDigest.isEqual(digest, digest(output))) {
+                Files.delete(written);
+                Log.info("Output is unchanged, leaving " + this.output.getAbsolutePath() + " untouched");
+                return;
+            }
+
+            try {
+                Files.move(written, output, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(written, output, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } catch (IOException e) {
+            throw new LazyException("Failed to replace output jar. (" + this.output.getAbsolutePath() + ")", e);
+        }
+    }
+
+    /**
+     * Compute the SHA-256 digest of a file.
+     */
+    private static byte[] digest(Path path) throws IOException {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+
+        try (InputStream in = Files.newInputStream(path)) {
+            byte[] buffer = new byte[1 << 16];
+            int read;
+            while ((read = in.read(buffer)) > 0) digest.update(buffer, 0, read);
+        }
+        return digest.digest();
+    }
+
+    /**
+     * Release the input jar & any output jar still open. Safe to call more than once.
+     */
+    private void close() {
+        try {
+            if (this.jarWriter != null) this.jarWriter.close();
+        } catch (IOException ignored) {}
+        this.jarWriter = null;
+
+        try {
+            if (this.originalIndex != null) this.originalIndex.close();
+            synchronized (this) {
+                if (this.originalJarFile != null) this.originalJarFile.close();
+            }
+        } catch (IOException e) {
+            Log.warn("Failed to close input jar. (" + this.originalFile.getAbsolutePath() + ")");
+        }
+    }
+
+    /**
+     * An entry from the input jar which hasn't been written to the output jar yet.
+     *
+     * @param entry The entry from the input jar.
+     * @param result The compressed stripped class (or null if the class is skipped), or null if the entry is copied as-is.
+     * @param nested True if the entry is a nested jar
+     */
+    private record Pending(JarIndex.Entry entry, Future<JarWriter.Compressed> result, boolean nested) {}
+
+    /**
+     * An entry from the input jar which has been processed, but not yet written to the output jar.
+     *
+     * @param entry The entry from the input jar.
+     * @param compressed The compressed stripped class, or null if the entry is copied as-is.
+     */
+    private record Collected(JarIndex.Entry entry, JarWriter.Compressed compressed) {}
+}
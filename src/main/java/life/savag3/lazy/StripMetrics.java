@@ -0,0 +1,207 @@
+package life.savag3.lazy;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Timing & size metrics of stripping a single jar. Safe to update from every worker thread at once.
+ * Phases run by the workers (reading, transforming & compressing classes) are summed across workers, so they may add up
+ * to more than the wall-clock time of the jar.
+ *
+ * @author Jacob C (Savag3life)
+ * @since 2026-10-18
+ */
+public final class StripMetrics {
+
+    private static final int BUCKETS = 32; // Transform latency buckets, bucket n counts classes taking under 2^n microseconds
+
+    public enum Phase {
+        // Opening & indexing the input jar
+        JAR_OPEN,
+        // Building the reference graph of the input jar to find unreachable classes, only when pruning
+        PRUNE,
+        // Reading & inflating entries from the input jar
+        READ,
+        // Stripping classes, including class cache lookups
+        TRANSFORM,
+        // Compressing stripped classes, done by the workers
+        COMPRESS,
+        // Hashing the API of written classes & writing the API index, only with API_INDEX
+        INDEX,
+        // Writing & copying entries to the output jar
+        WRITE,
+        // Writing the central directory & releasing both jars
+        CLOSE
+    }
+
+    private final LongAdder[] phaseNanos = new LongAdder[Phase.values().length];
+    private final AtomicLongArray histogram = new AtomicLongArray(BUCKETS);
+    private final LongAdder bytesIn = new LongAdder(); // Original bytes of stripped classes
+    private final LongAdder bytesOut = new LongAdder(); // Stripped bytes of stripped classes
+    private final LongAdder unchanged = new LongAdder(); // Classes copied through without being parsed, see ClassPreScan
+    private final Queue<Compaction> compactions = new ConcurrentLinkedQueue<>(); // Classes compacted, see COMPACT_CLASSES
+    private final LongAdder cached = new LongAdder(); // Classes read from the class cache, their compaction isn't known
+
+    private final int slowestLimit;
+    private final PriorityQueue<SlowClass> slowest = new PriorityQueue<>(Comparator.comparingLong(SlowClass::nanos));
+
+    public StripMetrics(int slowestLimit) {
+        this.slowestLimit = slowestLimit;
+        for (int x = 0; x < this.phaseNanos.length; x++) this.phaseNanos[x] = new LongAdder();
+    }
+
+    /**
+     * Add time spent in a phase.
+     *
+     * @param phase The phase
+     * @param nanos The time spent in nanoseconds
+     */
+    public void time(Phase phase, long nanos) {
+        this.phaseNanos[phase.ordinal()].add(nanos);
+    }
+
+    /**
+     * Record a single stripped class.
+     *
+     * @param name The class entry name
+     * @param nanos The time taken to strip the class
+     * @param in The original size of the class
+     * @param out The stripped size of the class
+     */
+    public void recordTransform(String name, long nanos, int in, int out) {
+        recordTransform(name, nanos, in, out, false);
+    }
+
+    /**
+     * Record a single stripped class.
+     *
+     * @param name The class entry name
+     * @param nanos The time taken to strip the class
+     * @param in The original size of the class
+     * @param out The stripped size of the class
+     * @param unchanged True if the class didn't need stripping & was copied through as-is
+     */
+    public void recordTransform(String name, long nanos, int in, int out, boolean unchanged) {
+        if (unchanged) this.unchanged.increment();
+        time(Phase.TRANSFORM, nanos);
+        this.bytesIn.add(in);
+        this.bytesOut.add(out);
+
+        long micros = TimeUnit.NANOSECONDS.toMicros(nanos);
+        this.histogram.incrementAndGet(Math.min(BUCKETS - 1, 64 - Long.numberOfLeadingZeros(micros)));
+
+        if (this.slowestLimit <= 0) return;
+        synchronized (this.slowest) {
+            if (this.slowest.size() < this.slowestLimit) {
+                this.slowest.add(new SlowClass(name, nanos));
+            } else if (this.slowest.peek().nanos() < nanos) {
+                this.slowest.poll();
+                this.slowest.add(new SlowClass(name, nanos));
+            }
+        }
+    }
+
+    /**
+     * Record the compaction of a single stripped class.
+     *
+     * @param name The class entry name
+     * @param before The stripped size of the class before compaction
+     * @param after The size of the class once compacted
+     */
+    public void recordCompaction(String name, int before, int after) {
+        this.compactions.add(new Compaction(name, before, after));
+    }
+
+    /**
+     * Record a class read from the class cache rather than stripped.
+     */
+    public void recordCacheHit() {
+        this.cached.increment();
+    }
+
+    public long getNanos(Phase phase) {
+        return this.phaseNanos[phase.ordinal()].sum();
+    }
+
+    public long getBytesIn() {
+        return this.bytesIn.sum();
+    }
+
+    public long getBytesOut() {
+        return this.bytesOut.sum();
+    }
+
+    public long getUnchanged() {
+        return this.unchanged.sum();
+    }
+
+    public long getCached() {
+        return this.cached.sum();
+    }
+
+    /**
+     * Get every class compacted, sorted by name.
+     *
+     * @return The size of each class before & after compaction
+     */
+    public List<Compaction> getCompactions() {
+        List<Compaction> compactions = new ArrayList<>(this.compactions);
+        compactions.sort(Comparator.comparing(Compaction::name));
+        return compactions;
+    }
+
+    /**
+     * Get the slowest classes recorded, slowest first.
+     *
+     * @return The slowest classes
+     */
+    public List<SlowClass> getSlowest() {
+        List<SlowClass> slowest;
+        synchronized (this.slowest) {
+            slowest = new ArrayList<>(this.slowest);
+        }
+        slowest.sort(Comparator.comparingLong(SlowClass::nanos).reversed());
+        return slowest;
+    }
+
+    /**
+     * Get the transform latency histogram, keyed by the exclusive upper bound of each bucket in microseconds.
+     * Empty buckets are left out.
+     *
+     * @return The histogram
+     */
+    public Map<Long, Long> getHistogram() {
+        Map<Long, Long> histogram = new LinkedHashMap<>();
+        for (int x = 0; x < BUCKETS; x++) {
+            long count = this.histogram.get(x);
+            if (count > 0) histogram.put(1L << x, count);
+        }
+        return histogram;
+    }
+
+    /**
+     * A class which took a long time to strip.
+     *
+     * @param name The class entry name
+     * @param nanos The time taken to strip the class
+     */
+    public record SlowClass(String name, long nanos) {}
+
+    /**
+     * The size of a stripped class before & after compaction.
+     *
+     * @param name The class entry name
+     * @param before The stripped size of the class before compaction
+     * @param after The size of the class once compacted
+     */
+    public record Compaction(String name, int before, int after) {}
+}
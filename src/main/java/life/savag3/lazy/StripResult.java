@@ -0,0 +1,36 @@
+package life.savag3.lazy;
+
+import java.io.File;
+import java.util.List;
+
+/**
+ * Summary of stripping a single jar.
+ *
+ * @param input The input jar
+ * @param output The output jar
+ * @param classes The number of classes stripped & written to the output jar
+ * @param copied The number of entries copied as-is to the output jar
+ * @param originalSize The size of the input jar in bytes
+ * @param size The size of the output jar in bytes
+ * @param millis The time taken to strip the jar
+ * @param metrics Per-phase timings of the jar, or null if the jar couldn't be stripped
+ * @param pruned The entry names of classes left out because they're unreachable from the public API, see {@link Config#PRUNE_UNREACHABLE}
+ * @param api The digest of the API of the output, or null if no API index was written, see {@link Config#API_INDEX}
+ * @param failure Why the jar couldn't be stripped, or null if it was stripped
+ *
+ * @author Jacob C (Savag3life)
+ * @since 2026-10-18
+ */
+public record StripResult(File input, File output, int classes, int copied, long originalSize, long size, long millis, StripMetrics metrics, List<String> pruned, String api, LazyException failure) {
+
+    /**
+     * Create the result of a jar which couldn't be stripped.
+     */
+    public static StripResult failed(File input, File output, long millis, LazyException failure) {
+        return new StripResult(input, output, 0, 0, input.length(), 0, millis, null, List.of(), null, failure);
+    }
+
+    public boolean isFailed() {
+        return this.failure != null;
+    }
+}
@@ -0,0 +1,169 @@
+package life.savag3.lazy;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.objectweb.asm.AnnotationVisitor;
+import org.objectweb.asm.ClassWriter;
+import org.objectweb.asm.Label;
+import org.objectweb.asm.MethodVisitor;
+import org.objectweb.asm.Opcodes;
+
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.zip.CRC32;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ApiIndexTest {
+
+    private static final String NAME = "life/savag3/lazy/ApiIndexTest.class";
+    private static final String BUILT = "example/Api";
+
+    // Variants of the class built by build(int)
+    private static final int OTHER_BODY = 1;
+    private static final int PRIVATE_MEMBERS = 1 << 1;
+    private static final int REORDERED = 1 << 2;
+    private static final int DEBUG_INFO = 1 << 3;
+    private static final int PUBLIC_SIGNATURE = 1 << 4;
+    private static final int PROTECTED_SIGNATURE = 1 << 5;
+    private static final int ANNOTATION_VALUE = 1 << 6;
+    private static final int CONSTANT = 1 << 7;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void zeroCrcIsReused() throws Exception {
+        byte[] bytes = bytes();
+        ApiIndex index = ApiIndex.open(this.directory.resolve("missing.api"));
+        AtomicInteger reads = new AtomicInteger();
+
+        index.add(NAME, 0, bytes.length, () -> {
+            reads.incrementAndGet();
+            return bytes;
+        });
+        index.add(NAME, 0, bytes.length, () -> {
+            reads.incrementAndGet();
+            return bytes;
+        });
+        assertEquals(1, reads.get());
+    }
+
+    @Test
+    void unknownCrcIsComputed() throws Exception {
+        byte[] bytes = bytes();
+        CRC32 crc = new CRC32();
+        crc.update(bytes);
+
+        Path file = this.directory.resolve("output.jar.api");
+        ApiIndex first = ApiIndex.open(file);
+        first.add(NAME, bytes);
+        first.write(file);
+        assertTrue(Files.readString(file).contains(Long.toHexString(crc.getValue()) + ":" + bytes.length + " " + NAME));
+
+        // The CRC is computed from the bytes, giving the same record as the previous index
+        ApiIndex second = ApiIndex.open(file);
+        second.add(NAME, -1, bytes.length, () -> bytes);
+        assertEquals(first.write(file), second.write(file));
+    }
+
+    @Test
+    void hashIsStable() throws Exception {
+        byte[] bytes = bytes();
+        assertEquals(ApiIndex.hash(NAME, bytes), ApiIndex.hash(NAME, bytes.clone()));
+        assertEquals(32, ApiIndex.hash(NAME, bytes).length());
+        assertNotEquals(ApiIndex.hash(NAME, bytes), ApiIndex.hash(NAME, bytesOf("ClassCompactorTest.class")));
+    }
+
+    @Test
+    void hashIgnoresImplementationDetails() {
+        String hash = ApiIndex.hash(BUILT + ".class", build(0));
+        assertEquals(hash, ApiIndex.hash(BUILT + ".class", build(OTHER_BODY)), "Method bodies");
+        assertEquals(hash, ApiIndex.hash(BUILT + ".class", build(PRIVATE_MEMBERS)), "Private members");
+        assertEquals(hash, ApiIndex.hash(BUILT + ".class", build(REORDERED)), "Member order");
+        assertEquals(hash, ApiIndex.hash(BUILT + ".class", build(DEBUG_INFO)), "Debug info");
+        assertEquals(hash, ApiIndex.hash(BUILT + ".class", build(OTHER_BODY | PRIVATE_MEMBERS | REORDERED | DEBUG_INFO)), "Every detail");
+    }
+
+    @Test
+    void hashFollowsTheApi() {
+        String hash = ApiIndex.hash(BUILT + ".class", build(0));
+        assertNotEquals(hash, ApiIndex.hash(BUILT + ".class", build(PUBLIC_SIGNATURE)), "Public signature");
+        assertNotEquals(hash, ApiIndex.hash(BUILT + ".class", build(PROTECTED_SIGNATURE)), "Protected signature");
+        assertNotEquals(hash, ApiIndex.hash(BUILT + ".class", build(ANNOTATION_VALUE)), "Annotation value");
+        assertNotEquals(hash, ApiIndex.hash(BUILT + ".class", build(CONSTANT)), "Constant");
+    }
+
+    /**
+     * Build a small class with a public constant, a public method & an annotated protected method,
+     * changed by the given variant flags.
+     */
+    private static byte[] build(int variant) {
+        List<Consumer<ClassWriter>> members = new ArrayList<>();
+        members.add(writer -> writer.visitField(Opcodes.ACC_PUBLIC | Opcodes.ACC_STATIC | Opcodes.ACC_FINAL, "LIMIT", "I", null,
+                (variant & CONSTANT) != 0 ? 2 : 1).visitEnd());
+        members.add(writer -> {
+            String descriptor = (variant & PUBLIC_SIGNATURE) != 0 ? "(IJ)I" : "(I)I";
+            MethodVisitor method = writer.visitMethod(Opcodes.ACC_PUBLIC, "run", descriptor, null, null);
+            method.visitCode();
+            Label start = new Label();
+            method.visitLabel(start);
+            if ((variant & DEBUG_INFO) != 0) method.visitLineNumber(10, start);
+            method.visitVarInsn(Opcodes.ILOAD, 1);
+            method.visitInsn((variant & OTHER_BODY) != 0 ? Opcodes.ICONST_2 : Opcodes.ICONST_1);
+            method.visitInsn(Opcodes.IADD);
+            method.visitInsn(Opcodes.IRETURN);
+            Label end = new Label();
+            method.visitLabel(end);
+            if ((variant & DEBUG_INFO) != 0) method.visitLocalVariable("value", "I", null, start, end, 1);
+            method.visitMaxs(0, 0);
+            method.visitEnd();
+        });
+        members.add(writer -> {
+            String descriptor = (variant & PROTECTED_SIGNATURE) != 0 ? "()Ljava/lang/Object;" : "()Ljava/lang/String;";
+            MethodVisitor method = writer.visitMethod(Opcodes.ACC_PROTECTED, "name", descriptor, null, null);
+            AnnotationVisitor annotation = method.visitAnnotation("Lexample/Tag;", true);
+            annotation.visit("value", (variant & ANNOTATION_VALUE) != 0 ? "b" : "a");
+            annotation.visitEnd();
+            method.visitCode();
+            method.visitInsn(Opcodes.ACONST_NULL);
+            method.visitInsn(Opcodes.ARETURN);
+            method.visitMaxs(0, 0);
+            method.visitEnd();
+        });
+        if ((variant & PRIVATE_MEMBERS) != 0) {
+            members.add(writer -> writer.visitField(Opcodes.ACC_PRIVATE, "cache", "Ljava/lang/Object;", null, null).visitEnd());
+            members.add(writer -> {
+                MethodVisitor method = writer.visitMethod(Opcodes.ACC_PRIVATE, "reset", "()V", null, null);
+                method.visitCode();
+                method.visitInsn(Opcodes.RETURN);
+                method.visitMaxs(0, 0);
+                method.visitEnd();
+            });
+        }
+        if ((variant & REORDERED) != 0) Collections.reverse(members);
+
+        ClassWriter writer = new ClassWriter(ClassWriter.COMPUTE_MAXS);
+        writer.visit(Opcodes.V17, Opcodes.ACC_PUBLIC | Opcodes.ACC_SUPER, BUILT, null, "java/lang/Object", null);
+        if ((variant & DEBUG_INFO) != 0) writer.visitSource("Api.java", null);
+        for (Consumer<ClassWriter> member : members) member.accept(writer);
+        writer.visitEnd();
+        return writer.toByteArray();
+    }
+
+    private static byte[] bytes() throws Exception {
+        return bytesOf("ApiIndexTest.class");
+    }
+
+    private static byte[] bytesOf(String file) throws Exception {
+        try (InputStream in = ApiIndexTest.class.getResourceAsStream(file)) {
+            return in.readAllBytes();
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package life.savag3.lazy;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ClassCacheTest {
+
+    private static final int ENTRY_BYTES = 1000;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void storingAKeyTwiceCountsItOnce() throws IOException {
+        // Counted twice, the entry would push the cache over its limit & be evicted
+        ClassCache cache = ClassCache.open(this.directory, ENTRY_BYTES + ENTRY_BYTES / 2, "fingerprint");
+        byte[] bytes = new byte[ENTRY_BYTES];
+        String key = cache.key(bytes);
+
+        cache.put(key, bytes);
+        cache.put(key, bytes);
+        assertArrayEquals(bytes, cache.get(key));
+    }
+
+    @Test
+    void putsEvictOnceOverTheLimit() throws IOException {
+        ClassCache cache = ClassCache.open(this.directory, ENTRY_BYTES * 10L, "fingerprint");
+        for (int x = 0; x < 50; x++) {
+            byte[] bytes = new byte[ENTRY_BYTES];
+            bytes[0] = (byte) x;
+            cache.put(cache.key(bytes), bytes);
+            assertTrue(cachedBytes() <= ENTRY_BYTES * 10L, "Cache grew past its limit after " + (x + 1) + " entries");
+        }
+    }
+
+    private long cachedBytes() throws IOException {
+        try (Stream<Path> files = Files.walk(this.directory)) {
+            return files.filter(Files::isRegularFile).mapToLong(file -> file.toFile().length()).sum();
+        }
+    }
+}
@@ -0,0 +1,192 @@
+package life.savag3.lazy;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.objectweb.asm.ClassReader;
+import org.objectweb.asm.ClassVisitor;
+import org.objectweb.asm.ClassWriter;
+import org.objectweb.asm.MethodVisitor;
+import org.objectweb.asm.Opcodes;
+import org.objectweb.asm.util.CheckClassAdapter;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ClassCompactorTest {
+
+    private static final List<Class<?>> FIXTURES = List.of(Fixture.class, Fixture.Inner.class, Fixture.Kind.class, Fixture.Point.class, Fixture.Named.class);
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void compactedClassesVerify() throws Exception {
+        LazyConfig config = config("{\"COMPACT_CLASSES\": true, \"EXEMPT\": []}");
+        for (Class<?> fixture : FIXTURES) {
+            for (LazyClassTransformer.Engine engine : LazyClassTransformer.Engine.values()) {
+                LazyConfig engineConfig = engine == LazyClassTransformer.Engine.TREE ? config("{\"COMPACT_CLASSES\": true, \"EXEMPT\": [], \"ENGINE\": \"TREE\"}") : config;
+                LazyClassTransformer transformer = new LazyClassTransformer(bytesOf(fixture), engineConfig);
+                byte[] compacted = transformer.strip();
+
+                StringWriter errors = new StringWriter();
+                CheckClassAdapter.verify(new ClassReader(compacted), getClass().getClassLoader(), false, new PrintWriter(errors));
+                assertEquals("", errors.toString(), fixture.getName() + " (" + engine + ")");
+                assertDoesNotThrow(() -> new ClassReader(compacted).accept(new CheckClassAdapter(new ClassWriter(0), true), 0));
+
+                assertTrue(transformer.getUncompactedSize() >= compacted.length, fixture.getName());
+            }
+        }
+    }
+
+    @Test
+    void dropsAttributesOfRemovedCode() throws Exception {
+        byte[] compacted = new LazyClassTransformer(bytesOf(Fixture.class), config("{\"COMPACT_CLASSES\": true, \"EXEMPT\": []}")).strip();
+
+        List<String> methods = new ArrayList<>();
+        List<String> innerClasses = new ArrayList<>();
+        String[] source = new String[1];
+        boolean[] nest = new boolean[1];
+        new ClassReader(compacted).accept(new ClassVisitor(Opcodes.ASM9) {
+            @Override
+            public void visitSource(String file, String debug) {
+                source[0] = file;
+            }
+
+            @Override
+            public void visitNestMember(String nestMember) {
+                nest[0] = true;
+            }
+
+            @Override
+            public void visitInnerClass(String name, String outerName, String innerName, int access) {
+                innerClasses.add(name);
+            }
+
+            @Override
+            public MethodVisitor visitMethod(int access, String name, String descriptor, String signature, String[] exceptions) {
+                methods.add(name + descriptor);
+                return null;
+            }
+        }, 0);
+
+        assertNull(source[0]);
+        assertFalse(nest[0]);
+        assertTrue(methods.stream().noneMatch(method -> method.startsWith("lambda$")), methods.toString());
+        // The bridge method of Comparable#compareTo is kept
+        assertTrue(methods.contains("compareTo(Ljava/lang/Object;)I"), methods.toString());
+        // Member classes are kept, the anonymous class only used by code isn't
+        assertTrue(innerClasses.contains(internalName(Fixture.Inner.class)), innerClasses.toString());
+        assertTrue(innerClasses.stream().noneMatch(name -> name.matches(".*\\$\\d+")), innerClasses.toString());
+    }
+
+    @Test
+    void keepsPublicSyntheticMembers() {
+        // lambda$ bodies, access$ accessors, this$0 & $VALUES
+        assertTrue(ClassCompactor.isDropped(Opcodes.ACC_PRIVATE | Opcodes.ACC_STATIC | Opcodes.ACC_SYNTHETIC));
+        assertTrue(ClassCompactor.isDropped(Opcodes.ACC_STATIC | Opcodes.ACC_SYNTHETIC));
+        assertTrue(ClassCompactor.isDropped(Opcodes.ACC_FINAL | Opcodes.ACC_SYNTHETIC));
+        assertTrue(ClassCompactor.isDropped(Opcodes.ACC_PRIVATE | Opcodes.ACC_STATIC | Opcodes.ACC_FINAL | Opcodes.ACC_SYNTHETIC));
+
+        // Kotlin $default methods, protected synthetic members & bridges are API
+        assertFalse(ClassCompactor.isDropped(Opcodes.ACC_PUBLIC | Opcodes.ACC_STATIC | Opcodes.ACC_SYNTHETIC));
+        assertFalse(ClassCompactor.isDropped(Opcodes.ACC_PROTECTED | Opcodes.ACC_SYNTHETIC));
+        assertFalse(ClassCompactor.isDropped(Opcodes.ACC_PUBLIC | Opcodes.ACC_SYNTHETIC | Opcodes.ACC_BRIDGE));
+        assertFalse(ClassCompactor.isDropped(Opcodes.ACC_PRIVATE));
+    }
+
+    @Test
+    void uncompactedSizeOnlyWhenCompacting() throws Exception {
+        LazyClassTransformer transformer = new LazyClassTransformer(bytesOf(Fixture.class), config("{\"COMPACT_CLASSES\": false, \"EXEMPT\": []}"));
+        transformer.strip();
+        assertEquals(-1, transformer.getUncompactedSize());
+    }
+
+    private LazyConfig config(String json) throws IOException, LazyException {
+        Path file = Files.createTempFile(this.directory, "config", ".json");
+        Files.writeString(file, json);
+        return LazyConfig.load(file);
+    }
+
+    private static byte[] bytesOf(Class<?> type) throws IOException {
+        try (InputStream in = type.getResourceAsStream("/" + internalName(type) + ".class")) {
+            return in.readAllBytes();
+        }
+    }
+
+    private static String internalName(Class<?> type) {
+        return type.getName().replace('.', '/');
+    }
+
+    @SuppressWarnings("unused")
+    public static class Fixture implements Comparable<Fixture> {
+
+        public static final String CONSTANT = "constant";
+        private final List<String> values = new ArrayList<>();
+        public int count;
+
+        public Supplier<String> supplier() {
+            return () -> this.values.isEmpty() ? CONSTANT : this.values.get(0);
+        }
+
+        public Comparator<Fixture> comparator() {
+            return new Comparator<>() {
+                @Override
+                public int compare(Fixture left, Fixture right) {
+                    return Integer.compare(left.count, right.count);
+                }
+            };
+        }
+
+        public Inner inner() {
+            return new Inner();
+        }
+
+        private int secret() {
+            return this.count * 2;
+        }
+
+        @Override
+        public int compareTo(Fixture other) {
+            return Integer.compare(secret(), other.secret());
+        }
+
+        public class Inner {
+            public int value() {
+                return count;
+            }
+        }
+
+        public enum Kind {
+            FIRST, SECOND;
+
+            public Kind next() {
+                return values()[(ordinal() + 1) % values().length];
+            }
+        }
+
+        public record Point(int x, int y) {
+            public Point {
+                if (x < 0) throw new IllegalArgumentException();
+            }
+        }
+
+        @Retention(RetentionPolicy.RUNTIME)
+        public @interface Named {
+            String value() default "";
+            Kind kind() default Kind.FIRST;
+            Class<?> type() default Object.class;
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package life.savag3.lazy;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LazyConfigTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void defaultConfigRoundTrips() throws Exception {
+        Path file = this.directory.resolve("config.json");
+        LazyConfig.current().save(file);
+        String written = Files.readString(file);
+        assertFalse(written.contains("DEFAULTS"), written);
+
+        LazyConfig loaded = LazyConfig.load(file);
+        assertEquals(LazyConfig.current().getFingerprint(), loaded.getFingerprint());
+
+        Path again = this.directory.resolve("again.json");
+        loaded.save(again);
+        assertEquals(written, Files.readString(again));
+    }
+
+    @Test
+    void cliConfigRoundTrips() throws Exception {
+        Path file = this.directory.resolve("config.json");
+        // The first run writes the default config, the second reads it back
+        new Lazy(file.toString()).close();
+        assertTrue(Files.isRegularFile(file));
+        String written = Files.readString(file);
+
+        new Lazy(file.toString()).close();
+        assertEquals(written, Files.readString(file));
+        assertEquals(LazyConfig.current().getFingerprint(), LazyConfig.load(file).getFingerprint());
+    }
+
+    @Test
+    void missingOptionsKeepDefaults() throws Exception {
+        Path file = this.directory.resolve("config.json");
+        Files.writeString(file, "{\"EXEMPT\": [\"life/savag3/example/*\"], \"THREADS\": 3}");
+
+        LazyConfig config = LazyConfig.load(file);
+        assertEquals(List.of("life/savag3/example/*"), config.getExempt());
+        assertEquals(3, config.getThreads());
+        assertEquals(Config.DEFAULTS.get("EXCLUDE"), config.getExclude());
+        assertTrue(config.isExempt("life/savag3/example/Core.class"));
+        assertFalse(config.isExempt("org/spongepowered/Core.class"));
+    }
+}
@@ -0,0 +1,50 @@
+package life.savag3.lazy;
+
+import org.junit.jupiter.api.Test;
+import org.objectweb.asm.Opcodes;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MethodStubTest {
+
+    @Test
+    void countsWideAndArrayParameters() {
+        // int, long & int[], the long takes two slots & the array one
+        MethodStub stub = MethodStub.of("(IJ[I)V");
+        assertEquals(4, stub.getMaxLocals(true));
+        assertEquals(5, stub.getMaxLocals(false));
+        assertEquals(Opcodes.RETURN, stub.getReturnOpcode());
+        assertEquals(-1, stub.getConstantOpcode());
+        assertEquals(0, stub.getMaxStack());
+        assertNull(stub.getContract());
+    }
+
+    @Test
+    void contractHasOneWildcardPerParameter() {
+        MethodStub stub = MethodStub.of("(IJ[I)Ljava/lang/Object;");
+        assertEquals(Opcodes.ARETURN, stub.getReturnOpcode());
+        assertEquals(List.of("value", "_,_,_->!null"), stub.getContract().values);
+
+        MethodStub references = MethodStub.of("([J[[DLjava/lang/String;[Ljava/util/List;)[I");
+        assertEquals(4, references.getMaxLocals(true));
+        assertEquals(List.of("value", "_,_,_,_->!null"), references.getContract().values);
+
+        assertEquals(List.of("value", "->!null"), MethodStub.of("()Ljava/lang/String;").getContract().values);
+    }
+
+    @Test
+    void primitiveReturnsPushZero() {
+        for (String type : List.of("Z", "B", "C", "S", "I")) {
+            MethodStub stub = MethodStub.of("()" + type);
+            assertEquals(Opcodes.ICONST_0, stub.getConstantOpcode(), type);
+            assertEquals(Opcodes.IRETURN, stub.getReturnOpcode(), type);
+            assertNull(stub.getContract(), type);
+        }
+        assertEquals(2, MethodStub.of("(D)J").getMaxStack());
+        assertEquals(2, MethodStub.of("(D)J").getMaxLocals(true));
+        assertEquals(Opcodes.DRETURN, MethodStub.of("()D").getReturnOpcode());
+        assertEquals(Opcodes.FRETURN, MethodStub.of("()F").getReturnOpcode());
+    }
+}
@@ -0,0 +1,71 @@
+package life.savag3.lazy;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PatternMatcherTest {
+
+    @Test
+    void prefixPatterns() {
+        PatternMatcher matcher = PatternMatcher.compile(List.of("org/example/*"));
+        assertTrue(matcher.matches("org/example/Core.class"));
+        assertTrue(matcher.matches("org/example/inner/Core.class"));
+        assertTrue(matcher.matches("org/example/"));
+        assertFalse(matcher.matches("org/example"));
+        assertFalse(matcher.matches("org/examples/Core.class"));
+        assertFalse(matcher.matches("com/org/example/Core.class"));
+    }
+
+    @Test
+    void exactPatterns() {
+        PatternMatcher matcher = PatternMatcher.compile(List.of("org/example/Core.class", "org/example/Core.class.bak"));
+        assertTrue(matcher.matches("org/example/Core.class"));
+        assertTrue(matcher.matches("org/example/Core.class.bak"));
+        assertFalse(matcher.matches("org/example/Core"));
+        assertFalse(matcher.matches("org/example/Core.classes"));
+        assertFalse(matcher.matches("org/example/Other.class"));
+    }
+
+    @Test
+    void innerGlobMatchesOnceEveryPartMatched() {
+        // Used to fall through & return false even though every part of the pattern was found
+        PatternMatcher matcher = PatternMatcher.compile(List.of("package0/*/package2"));
+        assertTrue(matcher.matches("package0/package1/package2"));
+        assertTrue(matcher.matches("package0/package1/package2/Core.class"));
+        assertTrue(matcher.matches("package0/a/b/package2/Core.class"));
+        assertFalse(matcher.matches("package0/package1/package3/Core.class"));
+        assertFalse(matcher.matches("package0/package2"));
+    }
+
+    @Test
+    void globsAreAnchoredAtTheStart() {
+        PatternMatcher matcher = PatternMatcher.compile(List.of("org/*/internal/*", "*/generated/*"));
+        assertTrue(matcher.matches("org/example/internal/Core.class"));
+        assertFalse(matcher.matches("com/org/example/internal/Core.class"));
+        assertFalse(matcher.matches("org/example/api/Core.class"));
+
+        // A leading wildcard matches from any depth
+        assertTrue(matcher.matches("com/example/generated/Core.class"));
+        assertFalse(matcher.matches("generated/Core.class"));
+    }
+
+    @Test
+    void mixedPatternsShareTheTrie() {
+        PatternMatcher matcher = PatternMatcher.compile(List.of("org/a/*", "org/a/b/Exact.class", "org/*/c/*", "org/ab/*/d"));
+        assertTrue(matcher.matches("org/a/Any.class"));
+        assertTrue(matcher.matches("org/x/c/Core.class"));
+        assertTrue(matcher.matches("org/ab/x/d/Core.class"));
+        assertFalse(matcher.matches("org/ab/Core.class"));
+        assertFalse(matcher.matches("org/b/Core.class"));
+    }
+
+    @Test
+    void emptyMatchesNothing() {
+        PatternMatcher matcher = PatternMatcher.compile(List.of());
+        assertFalse(matcher.matches(""));
+        assertFalse(matcher.matches("org/example/Core.class"));
+    }
+}